@@ -0,0 +1,140 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link Cache#get(Object)} for every {@link EvictionPolicy}, key distribution and capacity.
+ * Both the throughput and the latency distribution (with percentiles) are measured. The keys are drawn
+ * from {@code 4 * capacity} items, so every distribution causes misses, which are served by an
+ * {@link IdentityStorage} and thus measure the eviction and insertion only.
+ * <p>
+ * Usage: {@code CacheGetBenchmark [results prefix]}. Runs with 1, 4 and 16 threads and writes the JSON
+ * results of every thread count to {@code <prefix>-<threads>-threads.json}, the default prefix being
+ * {@value #DEFAULT_RESULTS_PREFIX}. The single-threaded runs measure both the plain and the striped cache,
+ * the multi-threaded ones only the striped cache, since the plain one is not thread-safe.
+ * A subset can also be run through the JMH command line, e.g. {@code -p capacity=1000 -t 4}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CacheGetBenchmark {
+    private static final String DEFAULT_RESULTS_PREFIX = "cache-benchmark";
+    private static final int[] THREADS = {1, 4, 16};
+
+    private static final int TRACE_LENGTH = 1 << 22;
+    private static final int ITEMS_PER_CAPACITY = 4;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final long SEED = 42;
+
+    @Param
+    private EvictionPolicy policy;
+
+    @Param({"zipf", "uniform", "scan"})
+    private String distribution;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int capacity;
+
+    @Param({"plain", "striped"})
+    private String implementation;
+
+    private Cache<Integer, Integer> cache;
+    private Integer[] trace;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ItemNotFound {
+        int items = ITEMS_PER_CAPACITY * capacity;
+        int[] keys = switch (distribution) {
+            case "zipf" -> KeyStreams.zipf(items, ZIPF_EXPONENT, TRACE_LENGTH, SEED);
+            case "uniform" -> KeyStreams.uniform(items, TRACE_LENGTH, SEED);
+            case "scan" -> KeyStreams.scan(items, TRACE_LENGTH);
+            default -> throw new IllegalArgumentException("Unknown key distribution " + distribution);
+        };
+
+        // The keys are boxed upfront, so the benchmark does not measure the allocation of Integers
+        Integer[] boxes = new Integer[items];
+        trace = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (boxes[keys[i]] == null) {
+                boxes[keys[i]] = keys[i];
+            }
+            trace[i] = boxes[keys[i]];
+        }
+
+        cache = switch (implementation) {
+            case "plain" -> CacheFactory.getInstance(new IdentityStorage<>(), capacity, policy);
+            case "striped" -> CacheFactory.getConcurrentInstance(new IdentityStorage<>(), capacity, policy);
+            default -> throw new IllegalArgumentException("Unknown cache implementation " + implementation);
+        };
+
+        for (Integer key : trace) {
+            cache.get(key);
+        }
+    }
+
+    /**
+     * The position of a thread in the trace. Every thread starts at a different offset, so the
+     * threads do not request the same keys in lockstep.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threads) {
+            index = (int) ((long) TRACE_LENGTH * threads.getThreadIndex() / threads.getThreadCount());
+        }
+
+        private int next() {
+            index = (index + 1) & (TRACE_LENGTH - 1);
+            return index;
+        }
+    }
+
+    @Benchmark
+    public Integer get(Cursor cursor) throws ItemNotFound {
+        return cache.get(trace[cursor.next()]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String resultsPrefix = args.length > 0 ? args[0] : DEFAULT_RESULTS_PREFIX;
+
+        for (int threads : THREADS) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(CacheGetBenchmark.class.getSimpleName())
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultsPrefix + "-" + threads + "-threads.json");
+            if (threads > 1) {
+                options.param("implementation", "striped");
+            }
+
+            new Runner(options.build()).run();
+        }
+    }
+}
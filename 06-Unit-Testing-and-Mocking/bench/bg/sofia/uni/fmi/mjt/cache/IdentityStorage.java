@@ -0,0 +1,23 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+
+/**
+ * Storage which contains every key, mapped to itself. Used to measure the cache alone.
+ */
+final class IdentityStorage<K> implements Storage<K, K> {
+    @Override
+    public K store(K key, K value) {
+        return null;
+    }
+
+    @Override
+    public K retrieve(K key) {
+        return key;
+    }
+
+    @Override
+    public K remove(K key) {
+        return null;
+    }
+}
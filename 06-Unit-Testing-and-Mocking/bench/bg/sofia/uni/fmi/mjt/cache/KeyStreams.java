@@ -0,0 +1,83 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generators of synthetic key streams used by the benchmarks.
+ */
+final class KeyStreams {
+
+    private KeyStreams() {
+    }
+
+    /**
+     * @return {@code length} keys from {@code [0, items)}, where key {@code i} is drawn with
+     * probability proportional to {@code 1 / (i + 1)^exponent}.
+     */
+    static int[] zipf(int items, double exponent, int length, long seed) {
+        double[] cumulative = new double[items];
+        double sum = 0;
+        for (int i = 0; i < items; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+
+        Random random = new Random(seed);
+        int[] keys = new int[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            keys[i] = index >= 0 ? index : -index - 1;
+        }
+
+        return keys;
+    }
+
+    /**
+     * @return {@code length} keys drawn uniformly from {@code [0, items)}.
+     */
+    static int[] uniform(int items, int length, long seed) {
+        return new Random(seed).ints(length, 0, items).toArray();
+    }
+
+    /**
+     * @return {@code length} keys cycling sequentially through {@code [0, items)}.
+     */
+    static int[] scan(int items, int length) {
+        int[] keys = new int[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = i % items;
+        }
+
+        return keys;
+    }
+
+    /**
+     * @return a Zipf distributed stream over {@code [0, items)} which is interrupted every
+     * {@code scanInterval} keys by a scan of {@code scanLength} keys that are never repeated.
+     */
+    static int[] zipfWithScans(int items, double exponent, int length, int scanInterval, int scanLength, long seed) {
+        int[] hot = zipf(items, exponent, length, seed);
+
+        int[] keys = new int[length];
+        int nextScanKey = items;
+        for (int i = 0; i < length; i++) {
+            boolean scanning = i % (scanInterval + scanLength) >= scanInterval;
+            keys[i] = scanning ? nextScanKey++ : hot[i];
+        }
+
+        return keys;
+    }
+
+    /**
+     * @return the keys from a trace file containing one integer key per line.
+     */
+    static int[] fromFile(Path trace) throws IOException {
+        try (var lines = Files.lines(trace)) {
+            return lines.filter(line -> !line.isBlank()).mapToInt(line -> Integer.parseInt(line.strip())).toArray();
+        }
+    }
+}
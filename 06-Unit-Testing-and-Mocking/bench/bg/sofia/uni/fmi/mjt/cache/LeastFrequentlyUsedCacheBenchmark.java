@@ -0,0 +1,57 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+
+/**
+ * Measures the cost of a miss (storage lookup, eviction and insertion) in a full LFU cache.
+ * With constant-time eviction the reported time per miss should stay flat as the capacity grows.
+ */
+public class LeastFrequentlyUsedCacheBenchmark {
+    private static final int[] CAPACITIES = {10_000, 100_000, 1_000_000};
+    private static final int MISSES = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws ItemNotFound {
+        System.out.printf("%12s %16s%n", "capacity", "ns/miss");
+
+        for (int capacity : CAPACITIES) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                measureMisses(capacity);
+            }
+
+            long bestNanos = Long.MAX_VALUE;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                bestNanos = Math.min(bestNanos, measureMisses(capacity));
+            }
+
+            System.out.printf("%12d %16.1f%n", capacity, bestNanos / (double) MISSES);
+        }
+    }
+
+    private static long measureMisses(int capacity) throws ItemNotFound {
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(new IdentityStorage<>(), capacity, EvictionPolicy.LEAST_FREQUENTLY_USED);
+
+        for (int key = 0; key < capacity; key++) {
+            cache.get(key);
+            if (key % 2 == 0) {
+                cache.get(key);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int key = capacity; key < capacity + MISSES; key++) {
+            cache.get(key);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (cache.size() != capacity) {
+            throw new IllegalStateException("Unexpected cache size " + cache.size());
+        }
+
+        return elapsed;
+    }
+}
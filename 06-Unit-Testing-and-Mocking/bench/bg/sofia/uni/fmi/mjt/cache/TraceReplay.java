@@ -0,0 +1,52 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays the same key stream through a cache of every {@link EvictionPolicy} and prints the hit rates.
+ * <p>
+ * Usage: {@code TraceReplay [capacity] [trace file]}. The trace file contains one integer key per line.
+ * Without a trace file a Zipf distributed stream of hot keys, interrupted by one-off scans, is replayed.
+ */
+public class TraceReplay {
+    private static final int DEFAULT_CAPACITY = 5_000;
+    private static final int ITEMS = 100_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final int TRACE_LENGTH = 2_000_000;
+    private static final int SCAN_INTERVAL = 200_000;
+    private static final int SCAN_LENGTH = 20_000;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CAPACITY;
+        int[] trace = args.length > 1
+            ? KeyStreams.fromFile(Path.of(args[1]))
+            : KeyStreams.zipfWithScans(ITEMS, ZIPF_EXPONENT, TRACE_LENGTH, SCAN_INTERVAL, SCAN_LENGTH, SEED);
+
+        System.out.printf("Replaying %d keys with capacity %d%n", trace.length, capacity);
+        System.out.printf("%-36s %10s%n", "policy", "hit rate");
+
+        for (EvictionPolicy policy : EvictionPolicy.values()) {
+            System.out.printf("%-36s %10.4f%n", policy, replay(trace, capacity, policy));
+        }
+    }
+
+    static double replay(int[] trace, int capacity, EvictionPolicy policy) {
+        Cache<Integer, Integer> cache = CacheFactory.getInstance(new IdentityStorage<>(), capacity, policy);
+
+        try {
+            for (int key : trace) {
+                cache.get(key);
+            }
+        } catch (ItemNotFound e) {
+            throw new IllegalStateException("Identity storage should contain every key", e);
+        }
+
+        return cache.getHitRate();
+    }
+}
@@ -0,0 +1,33 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache whose lookups never block the caller on the primary storage. Hits complete immediately,
+ * while misses are loaded on an executor.
+ */
+public interface AsyncCache<K, V> {
+
+    /**
+     * @param key
+     * @return a future of the value associated with the key. It is already completed if the value is in
+     * the cache, and completes exceptionally with {@link bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound}
+     * if the item is available neither in the cache, nor in the storage.
+     * @throws IllegalArgumentException if the key is null
+     */
+    CompletableFuture<V> get(K key);
+
+    /**
+     * @param keys
+     * @return a future of the values associated with the keys, as returned by {@link Cache#getAll(Collection)}.
+     * @throws IllegalArgumentException if the keys are null
+     */
+    CompletableFuture<Map<K, V>> getAll(Collection<? extends K> keys);
+
+    /**
+     * @return a blocking view of the same cache.
+     */
+    Cache<K, V> synchronous();
+}
@@ -0,0 +1,118 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Probabilistic set of items. {@link #mightContain(Object)} never returns false for an added item,
+ * but may return true for an item which was not added, with about the probability the filter was
+ * sized for, as long as no more than the expected number of items are added. Items cannot be removed.
+ * <p>
+ * Every item sets a number of bits chosen by double hashing of its {@link Object#hashCode()}, so items
+ * with equal hash codes are indistinguishable. The filter is thread-safe.
+ */
+public class BloomFilter<T> {
+    private static final double LN_2 = Math.log(2);
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final AtomicLongArray bits;
+    private final long bitsCount;
+    private final int hashesCount;
+
+    /**
+     * @param expectedInsertions       the number of items the filter is sized for
+     * @param falsePositiveProbability the desired probability of {@link #mightContain(Object)} returning true
+     *                                 for an item which was not added
+     * @throws IllegalArgumentException if the expected insertions are not positive or the probability
+     *                                  is not between 0 and 1, exclusive
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be a positive number");
+        }
+        if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1)) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1");
+        }
+
+        double optimalBits = -expectedInsertions * Math.log(falsePositiveProbability) / (LN_2 * LN_2);
+        long wordsCount = Math.max(1, (long) Math.ceil(Math.min(optimalBits, MAX_BITS) / Long.SIZE));
+
+        this.bits = new AtomicLongArray((int) wordsCount);
+        this.bitsCount = wordsCount * Long.SIZE;
+        this.hashesCount = (int) Math.max(1, Math.round(optimalBits / expectedInsertions * LN_2));
+    }
+
+    /**
+     * @return a filter sized for the given items, with all of them added
+     * @throws IllegalArgumentException if the items are null or empty, or the probability is not between 0 and 1
+     */
+    public static <T> BloomFilter<T> of(Collection<? extends T> items, double falsePositiveProbability) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Items cannot be null or empty!");
+        }
+
+        BloomFilter<T> filter = new BloomFilter<>(items.size(), falsePositiveProbability);
+        items.forEach(filter::add);
+
+        return filter;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the item is null
+     */
+    public void add(T item) {
+        long hash = hash(item);
+        for (int i = 0; i < hashesCount; i++) {
+            long bit = bitIndex(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * @return false if the item was definitely not added, true if it probably was
+     * @throws IllegalArgumentException if the item is null
+     */
+    public boolean mightContain(T item) {
+        long hash = hash(item);
+        for (int i = 0; i < hashesCount; i++) {
+            long bit = bitIndex(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private long bitIndex(long hash, int i) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        long combined = first + (long) i * second;
+
+        return Math.floorMod(combined, bitsCount);
+    }
+
+    /**
+     * @return the hash code of the item, spread over 64 bits by the finalizer of MurmurHash3
+     */
+    private static long hash(Object item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null!");
+        }
+
+        long hash = item.hashCode();
+        hash ^= hash >>> 33;
+        hash *= 0xff51_afd7_ed55_8ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ce_b9fe_1a85_ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -2,7 +2,10 @@ package bg.sofia.uni.fmi.mjt.cache;
 
 import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Map;
 
 public interface Cache<K, V> {
 
@@ -13,6 +16,18 @@ public interface Cache<K, V> {
      */
     V get(K key) throws ItemNotFound;
 
+    /**
+     * Returns the values associated with all given keys. Items found in the cache are served from it,
+     * and all the others are fetched from the storage with a single bulk lookup.
+     * Every distinct key counts as a single get(K) call towards the hit rate, however many times it is given.
+     *
+     * @param keys
+     * @return the values associated with the keys, in the iteration order of the keys. Keys which are
+     * available neither in the cache, nor in the storage, are not present in the map.
+     * @throws IllegalArgumentException if the keys or any of them are null
+     */
+    Map<K, V> getAll(Collection<? extends K> keys);
+
     /**
      * @return the number of all actual items stored currently in the cache.
      */
@@ -33,8 +48,23 @@ public interface Cache<K, V> {
      */
     double getHitRate();
 
+    /**
+     * @return a snapshot of the statistics of this cache, such as the hit, miss, load and eviction counts.
+     * Unlike the hit rate, they are cumulative since the cache was created and are not reset by clear().
+     */
+    CacheStats stats();
+
     /**
      * @return unmodifiable collection of the values in the cache.
      */
     Collection<V> values();
+
+    /**
+     * Writes the items in the cache, their eviction order and usage counts to a binary snapshot file,
+     * replacing it if it exists. Items whose key or value is not {@link java.io.Serializable} are skipped.
+     * The cache can be rebuilt from the snapshot with the restore methods of the cache factory.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    void saveSnapshot(Path file) throws IOException;
 }
@@ -3,21 +3,95 @@ package bg.sofia.uni.fmi.mjt.cache;
 import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
 import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
 public abstract class CacheBase<K, V> implements Cache<K, V> {
     private final Storage<K, V> storage;
     private final int capacity;
 
-    private int totalHits;
-    private int successfulHits;
+    private final StatsCounter stats = new StatsCounter();
+    private volatile CacheStats hitRateBaseline = CacheStats.EMPTY;
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+
+    private final NegativeCache<K> negatives;
+    private final BloomFilter<? super K> storageKeyFilter;
+    private final LongAdder rejectedLoads = new LongAdder();
+
+    private final ExpiryTracker<K> expiry;
+    private final Executor refreshExecutor;
+    private final Set<K> refreshesInFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<K, V> refreshedValues = new ConcurrentHashMap<>();
+    private final OffHeapStore<K, V> offHeap;
+
+    private final Weigher<? super K, ? super V> weigher;
+    private final long maximumWeight;
+    private long weightedSize;
+
+    private BiConsumer<K, V> evictionListener = (key, value) -> { };
+    private final List<Consumer<K>> invalidationListeners = new CopyOnWriteArrayList<>();
 
     protected CacheBase(Storage<K, V> storage, int capacity) {
+        this(storage, new CacheOptions<>(capacity));
+    }
+
+    protected CacheBase(Storage<K, V> storage, CacheOptions<K, V> options) {
         this.storage = storage;
-        this.capacity = capacity;
+        this.capacity = options.getCapacity();
+        this.weigher = options.getWeigher();
+        this.maximumWeight = options.getMaximumWeight();
+        this.expiry = new ExpiryTracker<>(options);
+        this.refreshExecutor = options.getRefreshExecutor();
+        this.offHeap = options.getOffHeapBudgetBytes() > 0
+            ? new OffHeapStore<>(options.getOffHeapBudgetBytes(), this::forgetExpiry)
+            : null;
+        this.negatives = options.getNegativeCacheCapacity() > 0 ? new NegativeCache<>(options) : null;
+        this.storageKeyFilter = options.getStorageKeyFilter();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the current time of the clock the items expire by, in milliseconds, or 0 if items do not expire.
+     */
+    long expiryTime() {
+        return expiry.isEnabled() ? expiry.now() : 0;
+    }
+
+    /**
+     * @return the {@link #expiryTime()} at which the item expires unless it is accessed or written again,
+     * or Long.MAX_VALUE if it does not expire.
+     */
+    long expiresAt(K key) {
+        return expiry.isEnabled() ? expiry.expiresAt(key) : Long.MAX_VALUE;
     }
 
     @Override
     public double getHitRate() {
-        return totalHits == 0 ? 0 : successfulHits / (double) totalHits;
+        return stats.snapshot().minus(hitRateBaseline).hitRate();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats.snapshot();
     }
 
     @Override
@@ -26,43 +100,491 @@ public abstract class CacheBase<K, V> implements Cache<K, V> {
             throw new IllegalArgumentException("Key cannot be null!");
         }
 
-        ++totalHits;
-
-        V returnValue = getFromCache(key);
+        V returnValue = getIfPresent(key);
         if (returnValue != null) {
-            successfulHits += 1;
             return returnValue;
         }
 
         // Item was not found in cache.
-        // Will try to fetch it from primary storage.
-        returnValue = storage.retrieve(key);
-        if (returnValue == null) {
+        // Will try to fetch it from primary storage, sharing the load with concurrent misses of the same key.
+        return load(key);
+    }
+
+    /**
+     * Looks the key up in the cache only, counting a hit or a miss.
+     *
+     * @return the cached value or null if there is none
+     */
+    V getIfPresent(K key) {
+        V value = lookup(key);
+        if (value != null) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+
+        return value;
+    }
+
+    /**
+     * Loads the value from the storage and adds it to the cache, sharing the load with concurrent
+     * loads of the same key.
+     *
+     * @throws ItemNotFound if the storage does not have the item, or it is known not to have it
+     */
+    V load(K key) throws ItemNotFound {
+        V value = isKnownMissing(key) ? null : loads.load(key, this::loadFromStorage);
+        if (value == null) {
             throw new ItemNotFound(String.format("Item with key %s not found", key));
         }
 
-        addToCache(key, returnValue);
-        return returnValue;
+        return value;
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys cannot be null!");
+        }
+
+        Map<K, V> result = new LinkedHashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        Set<K> seen = new HashSet<>();
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key cannot be null!");
+            }
+            if (!seen.add(key)) {
+                continue; // Every distinct key is looked up and counted once, even if it is known to be missing
+            }
+
+            V value = getIfPresent(key);
+            if (value != null) {
+                result.put(key, value);
+            } else if (!isKnownMissing(key)) {
+                result.put(key, null); // Keeps the position of the key until it is loaded
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<K, V> loaded = loadAllFromStorage(missing);
+            for (K key : missing) {
+                V value = loaded.get(key);
+                if (value != null) {
+                    cacheLoaded(key, value);
+                    result.put(key, value);
+                } else {
+                    rememberMissing(key);
+                    result.remove(key);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void saveSnapshot(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null!");
+        }
+
+        List<CacheSnapshot.Item<K, V>> items = new ArrayList<>();
+        for (CacheSnapshot.Item<K, V> item : snapshotItems()) {
+            long writeTime = expiry.isEnabled() ? expiry.writeTimeOf(item.key()) : CacheSnapshot.UNKNOWN_WRITE_TIME;
+            items.add(new CacheSnapshot.Item<>(item.key(), item.value(), writeTime, item.frequency()));
+        }
+
+        CacheSnapshot.write(file, items);
+    }
+
+    /**
+     * Adds the items saved by {@link #saveSnapshot(Path)} to the cache, restoring their eviction order and,
+     * if the cache tracks it, their usage counts. With expiry enabled, items keep their original write time
+     * and the ones which have expired meanwhile are skipped. Items which do not fit evict others as usual.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public void loadSnapshot(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null!");
+        }
+
+        long now = expiry.isEnabled() ? expiry.now() : 0;
+        for (CacheSnapshot.Item<K, V> item : CacheSnapshot.<K, V>read(file)) {
+            K key = item.key();
+            restoreItem(key, item.value(), item.frequency());
+            if (!expiry.isEnabled()) {
+                continue;
+            }
+
+            expiry.recordWrite(key, item.writeTime() == CacheSnapshot.UNKNOWN_WRITE_TIME ? now : item.writeTime());
+            if (expiry.isExpired(key, now)) {
+                expiry.remove(key);
+                deleteFromCache(key);
+            }
+        }
+    }
+
+    /**
+     * @return the number of storage loads avoided because a concurrent miss of the same key
+     * was already loading it.
+     */
+    public long getDeduplicatedLoadCount() {
+        return loads.getDeduplicatedLoads();
+    }
+
+    /**
+     * @return the number of storage loads avoided because the key was known to be missing from the storage,
+     * either by the negative cache or by the storage key filter.
+     */
+    public long getRejectedLoadCount() {
+        return rejectedLoads.sum();
+    }
+
+    private boolean isKnownMissing(K key) {
+        boolean missing = (storageKeyFilter != null && !storageKeyFilter.mightContain(key))
+            || (negatives != null && negatives.contains(key));
+        if (missing) {
+            rejectedLoads.increment();
+        }
+
+        return missing;
+    }
+
+    private void rememberMissing(K key) {
+        if (negatives != null) {
+            negatives.add(key);
+        }
+    }
+
+    private V loadFromStorage(K key) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = storage.retrieve(key);
+        } catch (RuntimeException e) {
+            stats.recordLoads(0, 1, System.nanoTime() - start);
+            throw e;
+        }
+
+        if (value != null) {
+            stats.recordLoads(1, 0, System.nanoTime() - start);
+            cacheLoaded(key, value);
+        } else {
+            stats.recordLoads(0, 1, System.nanoTime() - start);
+            rememberMissing(key);
+        }
+
+        return value;
+    }
+
+    private Map<K, V> loadAllFromStorage(Set<K> keys) {
+        long start = System.nanoTime();
+        Map<K, V> loaded;
+        try {
+            loaded = storage.retrieveAll(keys);
+        } catch (RuntimeException e) {
+            stats.recordLoads(0, keys.size(), System.nanoTime() - start);
+            throw e;
+        }
+
+        int successes = 0;
+        for (K key : keys) {
+            if (loaded.get(key) != null) {
+                successes++;
+            }
+        }
+        stats.recordLoads(successes, keys.size() - successes, System.nanoTime() - start);
+
+        return loaded;
+    }
+
+    private void cacheLoaded(K key, V value) {
+        addToCache(key, value);
+        if (expiry.isEnabled()) {
+            expiry.recordWrite(key, expiry.now());
+        }
     }
 
-    private void addToCache(K key, V value) {
-        if (size() == capacity && !this.containsKey(key)) {
-            evictFromCache();
+    private V lookup(K key) {
+        V value = expiry.isEnabled() ? getUnexpiredFromCache(key) : getFromCache(key);
+        if (value == null && offHeap != null) {
+            value = promoteFromOffHeap(key);
+        }
+
+        return value;
+    }
+
+    /**
+     * Moves the item back from the off-heap tier, if it was evicted there.
+     */
+    private V promoteFromOffHeap(K key) {
+        V value = offHeap.remove(key);
+        if (value != null) {
+            addToCache(key, value);
+            if (expiry.isEnabled()) {
+                expiry.recordAccess(key, expiry.now());
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Looks the key up, treating expired items as missing. Expired items are removed lazily: the
+     * requested item right away, and all others as the timer wheel reaches their deadline.
+     */
+    private V getUnexpiredFromCache(K key) {
+        long now = expiry.now();
+        for (K expiredKey : expiry.expire(now)) {
+            removeExpired(expiredKey);
+        }
+
+        V refreshed = refreshedValues.remove(key);
+        if (refreshed != null) {
+            if (containsKey(key)) {
+                replaceInCache(key, refreshed);
+                notifyInvalidation(key);
+            } else if (offHeap != null && offHeap.discard(key)) {
+                addToCache(key, refreshed);
+            }
+        }
+
+        if (expiry.isExpired(key, now)) {
+            expiry.remove(key);
+            removeExpired(key);
+            return null;
+        }
+
+        V value = getFromCache(key);
+        if (value != null) {
+            expiry.recordAccess(key, now);
+            if (expiry.needsRefresh(key, now)) {
+                refreshAhead(key);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Reloads the item from the storage in the background. The item's lifetime is extended as soon as
+     * the load completes, but the new value is put in the cache on the next get of the key, so the cache
+     * is never modified outside the callers' threads.
+     */
+    private void refreshAhead(K key) {
+        if (!refreshesInFlight.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = storage.retrieve(key);
+                    if (value != null) {
+                        refreshedValues.put(key, value);
+                        expiry.recordWrite(key, expiry.now());
+                    }
+                } finally {
+                    refreshesInFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshesInFlight.remove(key);
+        }
+    }
+
+    private void removeExpired(K key) {
+        deleteFromCache(key);
+        refreshedValues.remove(key);
+        if (offHeap != null) {
+            offHeap.discard(key);
+        }
+        notifyInvalidation(key);
+    }
+
+    /**
+     * Adds the item, evicting others until both its count and weight fit in the cache. An item heavier
+     * than the maximum weight is not added at all.
+     */
+    void addToCache(K key, V value) {
+        long weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            deleteFromCache(key);
+            return;
+        }
+        if (this.containsKey(key)) {
+            replaceInCache(key, value);
+            return;
+        }
+
+        while (size() > 0 && (size() >= capacity || weightedSize + weight > maximumWeight)) {
+            if (!evictOne()) {
+                break;
+            }
         }
 
         put(key, value);
+        weightedSize += weight;
     }
 
+    /**
+     * Replaces the value of an item which is already in the cache. If the new value makes the cache
+     * heavier than the maximum weight, other items are evicted until it fits, and a value heavier than
+     * the maximum weight on its own removes the item instead.
+     */
+    void replaceInCache(K key, V value) {
+        long weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            deleteFromCache(key);
+            return;
+        }
+
+        V previous = put(key, value);
+        weightedSize += weight - (previous == null ? 0 : weigh(key, previous));
+
+        while (size() > 0 && weightedSize > maximumWeight) {
+            if (!evictOne()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Evicts an item according to the eviction policy and notifies the listeners.
+     *
+     * @return false if there was nothing to evict
+     */
+    private boolean evictOne() {
+        Map.Entry<K, V> evicted = evictFromCache();
+        if (evicted == null) {
+            return false;
+        }
+
+        weightedSize -= weigh(evicted.getKey(), evicted.getValue());
+        onEviction(evicted.getKey(), evicted.getValue());
+        return true;
+    }
+
+    /**
+     * Removes the item from the cache, if it is there.
+     */
+    void deleteFromCache(K key) {
+        V previous = removeFromCache(key);
+        if (previous != null) {
+            weightedSize -= weigh(key, previous);
+        }
+    }
+
+    private long weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+
+        return weight;
+    }
+
+    void onEviction(K key, V value) {
+        stats.recordEviction(weigh(key, value));
+
+        // An item demoted to the off-heap tier keeps its expiry state until it is dropped from there as well
+        if (offHeap == null || !offHeap.put(key, value)) {
+            forgetExpiry(key);
+        }
+
+        evictionListener.accept(key, value);
+        notifyInvalidation(key);
+    }
+
+    private void forgetExpiry(K key) {
+        if (expiry.isEnabled()) {
+            expiry.remove(key);
+            refreshedValues.remove(key);
+        }
+    }
+
+    /**
+     * Sets a listener notified of every item evicted to make room for another one.
+     */
+    void setEvictionListener(BiConsumer<K, V> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Adds a listener notified of every key whose cached value stops being valid because it is evicted,
+     * expires or is replaced by a refreshed one. Every listener added is notified, so several caches can
+     * keep copies of the items of this one.
+     */
+    void addInvalidationListener(Consumer<K> invalidationListener) {
+        invalidationListeners.add(invalidationListener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addInvalidationListener(Consumer)}.
+     */
+    void removeInvalidationListener(Consumer<K> invalidationListener) {
+        invalidationListeners.remove(invalidationListener);
+    }
+
+    private void notifyInvalidation(K key) {
+        for (Consumer<K> listener : invalidationListeners) {
+            listener.accept(key);
+        }
+    }
+
+    /**
+     * Restarts the hit rate from zero. The cumulative {@link #stats()} are not affected.
+     */
     protected void resetHitRate() {
-        this.totalHits = 0;
-        this.successfulHits = 0;
+        this.hitRateBaseline = stats.snapshot();
+    }
+
+    /**
+     * Resets the hit rate, forgets the expiry state of all items, empties the off-heap tier and
+     * forgets the keys known to be missing.
+     * Meant to be called by {@link #clear()}.
+     */
+    protected void resetState() {
+        resetHitRate();
+        weightedSize = 0;
+        expiry.clear();
+        refreshedValues.clear();
+        if (offHeap != null) {
+            offHeap.clear();
+        }
+        if (negatives != null) {
+            negatives.clear();
+        }
     }
 
     abstract V getFromCache(K k);
 
     abstract boolean containsKey(K k);
 
-    abstract void evictFromCache();
+    /**
+     * Evicts an item according to the eviction policy.
+     *
+     * @return the evicted item or null if there was nothing to evict
+     */
+    abstract Map.Entry<K, V> evictFromCache();
 
     abstract V put(K k, V v);
+
+    abstract V removeFromCache(K k);
+
+    /**
+     * @return the items in the order in which adding them back with {@link #restoreItem} restores
+     * the eviction order. The write times are left unknown.
+     */
+    abstract List<CacheSnapshot.Item<K, V>> snapshotItems();
+
+    /**
+     * Adds an item read from a snapshot, together with its usage count, if the eviction policy tracks one.
+     */
+    void restoreItem(K key, V value, int frequency) {
+        addToCache(key, value);
+    }
 }
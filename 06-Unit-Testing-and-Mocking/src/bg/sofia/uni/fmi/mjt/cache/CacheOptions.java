@@ -0,0 +1,218 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Optional settings of a {@link Cache}. The capacity is mandatory, everything else is disabled by default.
+ */
+public class CacheOptions<K, V> {
+    private final int capacity;
+
+    private Duration expireAfterWrite;
+    private Duration expireAfterAccess;
+    private Duration refreshAheadTime;
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
+    private Clock clock = Clock.systemUTC();
+    private long offHeapBudgetBytes;
+    private Weigher<? super K, ? super V> weigher = (key, value) -> 1;
+    private long maximumWeight = Long.MAX_VALUE;
+    private Path shutdownSnapshotFile;
+    private int negativeCacheCapacity;
+    private Duration negativeCacheTimeToLive;
+    private BloomFilter<? super K> storageKeyFilter;
+
+    /**
+     * @throws IllegalArgumentException if the given capacity is less than or equal to zero
+     */
+    public CacheOptions(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be a positive number");
+        }
+
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    /**
+     * Items expire once the given time has passed since they were loaded from the storage.
+     *
+     * @throws IllegalArgumentException if the duration is not positive
+     */
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = requirePositive(expireAfterWrite, "Expire after write");
+    }
+
+    public Duration getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    /**
+     * Items expire once the given time has passed since they were last loaded or returned by get.
+     *
+     * @throws IllegalArgumentException if the duration is not positive
+     */
+    public void setExpireAfterAccess(Duration expireAfterAccess) {
+        this.expireAfterAccess = requirePositive(expireAfterAccess, "Expire after access");
+    }
+
+    public Duration getRefreshAheadTime() {
+        return refreshAheadTime;
+    }
+
+    /**
+     * An item which is read when less than the given time is left until it expires after write
+     * is reloaded from the storage in the background, while the reader gets the current value.
+     * Has effect only together with {@link #setExpireAfterWrite(Duration)}.
+     *
+     * @throws IllegalArgumentException if the duration is not positive
+     */
+    public void setRefreshAheadTime(Duration refreshAheadTime) {
+        this.refreshAheadTime = requirePositive(refreshAheadTime, "Refresh ahead time");
+    }
+
+    public Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = requireNonNull(refreshExecutor, "Refresh executor");
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = requireNonNull(clock, "Clock");
+    }
+
+    public long getOffHeapBudgetBytes() {
+        return offHeapBudgetBytes;
+    }
+
+    /**
+     * Enables an off-heap tier of the given size. Items evicted from the cache are serialized into
+     * direct memory instead of being dropped, and are moved back to the cache when they are requested again,
+     * without reverting to the primary storage. Values which are not {@link java.io.Serializable} are dropped.
+     *
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public void setOffHeapBudgetBytes(long offHeapBudgetBytes) {
+        if (offHeapBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Off-heap budget must be a positive number");
+        }
+
+        this.offHeapBudgetBytes = offHeapBudgetBytes;
+    }
+
+    public Weigher<? super K, ? super V> getWeigher() {
+        return weigher;
+    }
+
+    /**
+     * Sets how the weight of the items is calculated. By default, every item weighs 1.
+     * Has effect only together with {@link #setMaximumWeight(long)}.
+     */
+    public void setWeigher(Weigher<? super K, ? super V> weigher) {
+        this.weigher = requireNonNull(weigher, "Weigher");
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Limits the total weight of the cached items, in addition to their count. Items are evicted
+     * until the one being added fits, and items heavier than the maximum weight are not cached at all.
+     *
+     * @throws IllegalArgumentException if the maximum weight is not positive
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be a positive number");
+        }
+
+        this.maximumWeight = maximumWeight;
+    }
+
+    public Path getShutdownSnapshotFile() {
+        return shutdownSnapshotFile;
+    }
+
+    /**
+     * Makes the cache save a snapshot of its items to the given file when the JVM shuts down, so a later
+     * run can warm up from it with the restore methods of the cache factory.
+     *
+     * @throws IllegalArgumentException if the file is null
+     */
+    public void setShutdownSnapshotFile(Path shutdownSnapshotFile) {
+        this.shutdownSnapshotFile = requireNonNull(shutdownSnapshotFile, "Shutdown snapshot file");
+    }
+
+    public int getNegativeCacheCapacity() {
+        return negativeCacheCapacity;
+    }
+
+    public Duration getNegativeCacheTimeToLive() {
+        return negativeCacheTimeToLive;
+    }
+
+    /**
+     * Makes the cache remember up to {@code capacity} keys which the storage did not have, for the given time.
+     * Gets of such keys throw {@link bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound} right away, without
+     * querying the storage again, so keys added to the storage meanwhile are found only after the time passes.
+     *
+     * @throws IllegalArgumentException if the capacity or the time to live is not positive
+     */
+    public void setNegativeCaching(int capacity, Duration timeToLive) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Negative cache capacity must be a positive number");
+        }
+
+        this.negativeCacheTimeToLive = requirePositive(timeToLive, "Negative cache time to live");
+        this.negativeCacheCapacity = capacity;
+    }
+
+    public BloomFilter<? super K> getStorageKeyFilter() {
+        return storageKeyFilter;
+    }
+
+    /**
+     * Sets a filter of the keys in the storage. Gets of keys which the filter does not contain throw
+     * {@link bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound} without querying the storage at all, so
+     * every key added to the storage has to be added to the filter too.
+     *
+     * @throws IllegalArgumentException if the filter is null
+     */
+    public void setStorageKeyFilter(BloomFilter<? super K> storageKeyFilter) {
+        this.storageKeyFilter = requireNonNull(storageKeyFilter, "Storage key filter");
+    }
+
+    private static <T> T requireNonNull(T value, String varName) {
+        if (value == null) {
+            throw new IllegalArgumentException(varName + " cannot be null!");
+        }
+
+        return value;
+    }
+
+    private static Duration requirePositive(Duration duration, String varName) {
+        requireNonNull(duration, varName);
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(varName + " must be positive");
+        }
+
+        return duration;
+    }
+}
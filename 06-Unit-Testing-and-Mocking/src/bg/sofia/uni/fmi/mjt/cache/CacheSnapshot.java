@@ -0,0 +1,181 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.WriteAbortedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot of the items of a cache. The file starts with a magic number, a format version and
+ * the number of items, followed by a single Java serialization stream of the items in the order in
+ * which they have to be added back to restore the eviction order. Every item is written as its write
+ * time, usage count, key and value, so the class descriptors and the objects shared between items are
+ * written only once. Items whose key or value is not {@link java.io.Serializable} are skipped: the
+ * stream records the failure in their place and stays readable.
+ */
+final class CacheSnapshot {
+    private static final int MAGIC = 0x4D4A5443;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE_BYTES = 3 * Integer.BYTES;
+
+    static final long UNKNOWN_WRITE_TIME = -1;
+
+    /**
+     * @param writeTime the time the item was loaded, in milliseconds since the epoch,
+     *                  or {@link #UNKNOWN_WRITE_TIME} if the cache does not track it
+     * @param frequency the usage count of the item, or an estimate of it
+     */
+    record Item<K, V>(K key, V value, long writeTime, int frequency) {
+    }
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Writes the items to a temporary file which then replaces the given one, so an earlier snapshot
+     * is never left half-overwritten.
+     */
+    static <K, V> void write(Path file, List<Item<K, V>> items) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            DataOutputStream header = new DataOutputStream(stream);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(items.size());
+
+            ObjectOutputStream out = new ObjectOutputStream(stream);
+            for (Item<K, V> item : items) {
+                out.writeLong(item.writeTime());
+                out.writeInt(item.frequency());
+                if (writeObject(out, item.key())) {
+                    writeObject(out, item.value());
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the items through a memory mapping of the file, leaving out the ones which were skipped when
+     * the snapshot was written.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static <K, V> List<Item<K, V>> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < HEADER_SIZE_BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache snapshot version " + version + ": " + file);
+            }
+            int count = buffer.getInt();
+
+            ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer));
+            List<Item<K, V>> items = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                long writeTime = in.readLong();
+                int frequency = in.readInt();
+                try {
+                    K key = readObject(in);
+                    V value = readObject(in);
+                    items.add(new Item<>(key, value, writeTime, frequency));
+                } catch (WriteAbortedException e) {
+                    // The key or the value was not serializable
+                }
+            }
+
+            return items;
+        } catch (EOFException e) {
+            throw new IOException("Truncated cache snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * @return false if the object is not serializable. The stream is still valid, as the failure is
+     * written in place of the object.
+     */
+    private static boolean writeObject(ObjectOutputStream out, Object object) throws IOException {
+        try {
+            out.writeObject(object);
+            return true;
+        } catch (NotSerializableException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @throws WriteAbortedException if the object was not serializable when the snapshot was written
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T readObject(ObjectInputStream in) throws IOException {
+        try {
+            return (T) in.readObject();
+        } catch (ClassNotFoundException e) {
+            InvalidObjectException exception = new InvalidObjectException("Unknown class " + e.getMessage());
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    /**
+     * Reads the buffer from its position to its limit, moving the position.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
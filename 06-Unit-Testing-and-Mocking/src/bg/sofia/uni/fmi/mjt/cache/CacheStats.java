@@ -0,0 +1,60 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+/**
+ * Immutable snapshot of the statistics of a {@link Cache}. The counters are cumulative since the cache
+ * was created and are not reset by {@link Cache#clear()}.
+ *
+ * @param hitCount         the number of lookups which found the item in the cache
+ * @param missCount        the number of lookups which did not find the item in the cache
+ * @param loadSuccessCount the number of items successfully loaded from the storage
+ * @param loadFailureCount the number of items which were not found in the storage, or failed to load
+ * @param totalLoadTime    the total time spent loading items from the storage, in nanoseconds
+ * @param evictionCount    the number of items evicted to make room for other ones
+ * @param evictionWeight   the total weight of the evicted items
+ */
+public record CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+                         long totalLoadTime, long evictionCount, long evictionWeight) {
+
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * @return the number of lookups, either hits or misses.
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return the proportion of the lookups which were hits, or 0.0 if there were no lookups.
+     */
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 0 : hitCount / (double) requests;
+    }
+
+    /**
+     * @return the proportion of the lookups which were misses, or 0.0 if there were no lookups.
+     */
+    public double missRate() {
+        long requests = requestCount();
+        return requests == 0 ? 0 : missCount / (double) requests;
+    }
+
+    /**
+     * @return the average time spent loading a single item, in nanoseconds, or 0.0 if nothing was loaded.
+     */
+    public double averageLoadPenalty() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0 : totalLoadTime / (double) loads;
+    }
+
+    /**
+     * @return the difference between these statistics and the given earlier snapshot.
+     */
+    public CacheStats minus(CacheStats other) {
+        return new CacheStats(hitCount - other.hitCount, missCount - other.missCount,
+            loadSuccessCount - other.loadSuccessCount, loadFailureCount - other.loadFailureCount,
+            totalLoadTime - other.totalLoadTime, evictionCount - other.evictionCount,
+            evictionWeight - other.evictionWeight);
+    }
+}
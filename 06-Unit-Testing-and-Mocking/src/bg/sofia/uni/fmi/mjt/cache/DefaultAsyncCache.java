@@ -0,0 +1,95 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link AsyncCache} on top of a {@link StripedCache}, which the executor threads completing the loads
+ * can safely share with the callers. Concurrent misses of the same key share a single load, without
+ * occupying more than one executor thread.
+ * <p>
+ * The lookup of {@link #get(Object)} runs on the calling thread. Besides the in-memory lookup, it may
+ * remove the items which have expired since the previous lookup, and, with an off-heap tier, deserialize
+ * a value found there. The storage itself is only queried on the executor.
+ */
+public class DefaultAsyncCache<K, V> implements AsyncCache<K, V> {
+    private final StripedCache<K, V> cache;
+    private final Executor executor;
+    private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * @param cache    the cache holding the items, shared with the executor threads
+     * @param executor runs the loads of the missing items
+     */
+    public DefaultAsyncCache(StripedCache<K, V> cache, Executor executor) {
+        if (cache == null) {
+            throw new IllegalArgumentException("Cache cannot be null!");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null!");
+        }
+
+        this.cache = cache;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<V> get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null!");
+        }
+
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, load);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        try {
+            executor.execute(() -> load(key, load));
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, load);
+            load.completeExceptionally(e);
+        }
+
+        // Callers get a copy, so cancelling or completing it does not affect the others waiting for the same load
+        return load.copy();
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAll(Collection<? extends K> keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys cannot be null!");
+        }
+
+        return CompletableFuture.supplyAsync(() -> cache.getAll(keys), executor);
+    }
+
+    @Override
+    public Cache<K, V> synchronous() {
+        return cache;
+    }
+
+    private void load(K key, CompletableFuture<V> load) {
+        try {
+            V value = cache.load(key);
+            loading.remove(key, load);
+            load.complete(value);
+        } catch (ItemNotFound | RuntimeException | Error e) {
+            loading.remove(key, load);
+            load.completeExceptionally(e);
+        }
+    }
+}
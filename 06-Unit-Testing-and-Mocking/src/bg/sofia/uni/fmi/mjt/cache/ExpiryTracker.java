@@ -0,0 +1,151 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the write and access times of the cached items and tells when they expire or should be
+ * refreshed. Expired items are collected lazily through a {@link TimerWheel}.
+ */
+final class ExpiryTracker<K> {
+    private static final long NEVER = Long.MAX_VALUE;
+    private static final int TICKS_PER_LIFETIME = 64;
+
+    private final Clock clock;
+    private final long expireAfterWriteMillis;
+    private final long expireAfterAccessMillis;
+    private final long refreshAheadMillis;
+
+    private final ConcurrentMap<K, Timestamps> timestamps = new ConcurrentHashMap<>();
+    private final TimerWheel<K> wheel;
+
+    ExpiryTracker(CacheOptions<K, ?> options) {
+        this.clock = options.getClock();
+        this.expireAfterWriteMillis = toMillis(options.getExpireAfterWrite());
+        this.expireAfterAccessMillis = toMillis(options.getExpireAfterAccess());
+        this.refreshAheadMillis = expireAfterWriteMillis == NEVER ? NEVER : toMillis(options.getRefreshAheadTime());
+
+        long shortestLifetime = Math.min(expireAfterWriteMillis, expireAfterAccessMillis);
+        this.wheel = new TimerWheel<>(shortestLifetime / TICKS_PER_LIFETIME);
+    }
+
+    /**
+     * @return true if items expire at all. When false, all other methods are not meant to be called.
+     */
+    boolean isEnabled() {
+        return expireAfterWriteMillis != NEVER || expireAfterAccessMillis != NEVER;
+    }
+
+    long now() {
+        return clock.millis();
+    }
+
+    void recordWrite(K key, long now) {
+        Timestamps written = new Timestamps(now);
+        timestamps.put(key, written);
+        wheel.schedule(key, deadlineOf(written));
+    }
+
+    void recordAccess(K key, long now) {
+        Timestamps current = timestamps.get(key);
+        if (current != null) {
+            current.accessTime = now;
+        }
+    }
+
+    boolean isExpired(K key, long now) {
+        Timestamps current = timestamps.get(key);
+        return current != null && deadlineOf(current) <= now;
+    }
+
+    /**
+     * @return true if the item's remaining time until it expires after write is within the refresh ahead time.
+     */
+    boolean needsRefresh(K key, long now) {
+        if (refreshAheadMillis == NEVER) {
+            return false;
+        }
+
+        Timestamps current = timestamps.get(key);
+        return current != null && now >= current.writeTime + expireAfterWriteMillis - refreshAheadMillis;
+    }
+
+    /**
+     * @return the time the item was last written, or -1 if it is not tracked.
+     */
+    long writeTimeOf(K key) {
+        Timestamps current = timestamps.get(key);
+        return current == null ? -1 : current.writeTime;
+    }
+
+    /**
+     * @return the time the item expires at unless it is accessed or written again, or Long.MAX_VALUE if it
+     * is not tracked.
+     */
+    long expiresAt(K key) {
+        return deadlineOf(key);
+    }
+
+    void remove(K key) {
+        if (timestamps.remove(key) != null) {
+            wheel.cancel(key);
+        }
+    }
+
+    void clear() {
+        timestamps.clear();
+        wheel.clear();
+    }
+
+    /**
+     * Advances the timer wheel and forgets the items which have expired in the meantime.
+     *
+     * @return the keys of the expired items
+     */
+    List<K> expire(long now) {
+        List<K> expired = new ArrayList<>();
+        for (K key : wheel.advance(now, this::deadlineOf)) {
+            Timestamps current = timestamps.get(key);
+            if (current != null && deadlineOf(current) <= now && timestamps.remove(key, current)) {
+                expired.add(key);
+            }
+        }
+
+        return expired;
+    }
+
+    private long deadlineOf(K key) {
+        Timestamps current = timestamps.get(key);
+        return current == null ? NEVER : deadlineOf(current);
+    }
+
+    private long deadlineOf(Timestamps current) {
+        long deadline = NEVER;
+        if (expireAfterWriteMillis != NEVER) {
+            deadline = current.writeTime + expireAfterWriteMillis;
+        }
+        if (expireAfterAccessMillis != NEVER) {
+            deadline = Math.min(deadline, current.accessTime + expireAfterAccessMillis);
+        }
+
+        return deadline;
+    }
+
+    private static long toMillis(Duration duration) {
+        return duration == null ? NEVER : duration.toMillis();
+    }
+
+    private static final class Timestamps {
+        private final long writeTime;
+        private volatile long accessTime;
+
+        private Timestamps(long writeTime) {
+            this.writeTime = writeTime;
+            this.accessTime = writeTime;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch estimating how often keys were accessed recently. Every key is counted in
+ * {@value #DEPTH} 4-bit counters, sixteen of which are packed in a single long, and its frequency is
+ * the smallest of them. Once the number of recorded accesses reaches the sample size all counters
+ * are halved, so that the popularity of keys which are no longer accessed decays over time.
+ */
+final class FrequencySketch<K> {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int SAMPLE_SIZE_PER_ITEM = 10;
+    private static final int MIN_TABLE_LENGTH = 16;
+    private static final int MAX_TABLE_LENGTH = 1 << 26;
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final long[] SEEDS = {
+        0xc3a5_c85c_97cb_3127L, 0xb492_b66f_be98_f273L, 0x9ae1_6a3b_2f90_404fL, 0xcbf2_9ce4_8422_2325L
+    };
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int tableLength = MIN_TABLE_LENGTH;
+        while (tableLength < capacity && tableLength < MAX_TABLE_LENGTH) {
+            tableLength <<= 1;
+        }
+
+        this.table = new long[tableLength];
+        this.counterMask = tableLength * Long.SIZE / 4 - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, (long) SAMPLE_SIZE_PER_ITEM * capacity);
+    }
+
+    /**
+     * Records an access to the key, aging all counters if the sample size is reached.
+     */
+    void increment(K key) {
+        int hash = spread(key.hashCode());
+
+        boolean incremented = false;
+        for (int i = 0; i < DEPTH; i++) {
+            incremented |= incrementAt(indexOf(hash, i));
+        }
+
+        if (incremented && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * @return the estimated number of recent accesses to the key, in the interval [0, 15].
+     */
+    int frequency(K key) {
+        int hash = spread(key.hashCode());
+
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, countAt(indexOf(hash, i)));
+        }
+
+        return frequency;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+        additions = 0;
+    }
+
+    private boolean incrementAt(int counter) {
+        int tableIndex = counter >>> 4;
+        int offset = (counter & 15) << 2;
+        long mask = 0xfL << offset;
+
+        if ((table[tableIndex] & mask) == mask) {
+            return false;
+        }
+
+        table[tableIndex] += 1L << offset;
+        return true;
+    }
+
+    private int countAt(int counter) {
+        int tableIndex = counter >>> 4;
+        int offset = (counter & 15) << 2;
+
+        return (int) ((table[tableIndex] >>> offset) & 0xfL);
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9e37_79b9;
+        return h ^ (h >>> 16);
+    }
+}
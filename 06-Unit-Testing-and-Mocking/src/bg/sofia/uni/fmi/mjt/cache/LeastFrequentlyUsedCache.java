@@ -2,18 +2,35 @@ package bg.sofia.uni.fmi.mjt.cache;
 
 import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
 
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * LFU cache in which {@link #getFromCache}, {@link #put} and {@link #evictFromCache} run in constant time.
+ * The items are grouped in buckets by usage count and the buckets form a doubly linked list in
+ * ascending order of their count, so the eviction candidate is always in the first bucket.
+ * Among items with equal (minimal) usage count the most recently added one is evicted.
+ */
 public class LeastFrequentlyUsedCache<K, V> extends CacheBase<K, V> {
-    private final Map<K, V> cache;
-    private final Map<K, Integer> keyUses;
+    private final Map<K, Node<K, V>> cache;
+    private final Collection<V> values;
+
+    private FrequencyBucket<K, V> lowestFrequency;
 
     public LeastFrequentlyUsedCache(Storage<K, V> storage, int capacity) {
-        super(storage, capacity);
-        cache = new HashMap<>(capacity);
-        keyUses = new HashMap<>(capacity);
+        this(storage, new CacheOptions<>(capacity));
+    }
+
+    public LeastFrequentlyUsedCache(Storage<K, V> storage, CacheOptions<K, V> options) {
+        super(storage, options);
+        cache = new HashMap<>(options.getCapacity());
+        values = new Values();
     }
 
     @Override
@@ -23,14 +40,14 @@ public class LeastFrequentlyUsedCache<K, V> extends CacheBase<K, V> {
 
     @Override
     public Collection<V> values() {
-        return this.cache.values();
+        return this.values;
     }
 
     @Override
     public void clear() {
-        super.resetHitRate();
+        super.resetState();
         cache.clear();
-        keyUses.clear();
+        lowestFrequency = null;
     }
 
     protected V getFromCache(K key) {
@@ -38,43 +55,240 @@ public class LeastFrequentlyUsedCache<K, V> extends CacheBase<K, V> {
             throw new IllegalArgumentException("Key cannot be null!");
         }
 
-        if (keyUses.containsKey(key)) {
-            keyUses.put(key, keyUses.get(key) + 1);
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            return null;
         }
 
-        return cache.get(key);
+        incrementUses(node);
+        return node.value;
     }
 
     protected V put(K key, V value) {
-        keyUses.putIfAbsent(key, 0);
-        keyUses.put(key, keyUses.get(key) + 1);
+        Node<K, V> node = cache.get(key);
+        if (node != null) {
+            V oldValue = node.value;
+            node.value = value;
+            incrementUses(node);
+
+            return oldValue;
+        }
 
-        return cache.put(key, value);
+        node = new Node<>(key, value);
+        if (lowestFrequency == null || lowestFrequency.frequency != 1) {
+            lowestFrequency = new FrequencyBucket<>(1, null, lowestFrequency);
+        }
+        lowestFrequency.append(node);
+        cache.put(key, node);
+
+        return null;
     }
 
     protected boolean containsKey(K k) {
         return this.cache.containsKey(k);
     }
 
-    protected void evictFromCache() {
-        K evictionKey = getEvictionKey();
-        cache.remove(evictionKey);
-        keyUses.remove(evictionKey);
+    protected V removeFromCache(K k) {
+        Node<K, V> node = cache.remove(k);
+        if (node == null) {
+            return null;
+        }
+
+        unlink(node);
+        return node.value;
     }
 
-    private K getEvictionKey() {
-        int minUsageCount = Integer.MAX_VALUE;
-        K toBeRemoved = null;
+    protected Map.Entry<K, V> evictFromCache() {
+        if (lowestFrequency == null) {
+            return null;
+        }
+
+        Node<K, V> evicted = lowestFrequency.tail;
+        unlink(evicted);
+        cache.remove(evicted.key);
 
-        for (K key : keyUses.keySet()) {
-            int usageCount = keyUses.get(key);
-            if (usageCount <= minUsageCount) {
-                toBeRemoved = key;
-                minUsageCount = usageCount;
+        return new AbstractMap.SimpleImmutableEntry<>(evicted.key, evicted.value);
+    }
+
+    /**
+     * @return the items in ascending order of their usage count.
+     */
+    List<CacheSnapshot.Item<K, V>> snapshotItems() {
+        List<CacheSnapshot.Item<K, V>> items = new ArrayList<>(cache.size());
+        for (FrequencyBucket<K, V> bucket = lowestFrequency; bucket != null; bucket = bucket.next) {
+            for (Node<K, V> node = bucket.head; node != null; node = node.next) {
+                items.add(new CacheSnapshot.Item<>(node.key, node.value, CacheSnapshot.UNKNOWN_WRITE_TIME,
+                    bucket.frequency));
             }
         }
 
-        return toBeRemoved;
+        return items;
+    }
+
+    @Override
+    void restoreItem(K key, V value, int frequency) {
+        addToCache(key, value);
+
+        Node<K, V> node = cache.get(key);
+        if (node != null) {
+            moveToFrequency(node, frequency);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        FrequencyBucket<K, V> bucket = node.bucket;
+        bucket.unlink(node);
+        removeIfEmpty(bucket);
+    }
+
+    /**
+     * Moves the node to the bucket with usage count one higher than its current one,
+     * creating the bucket if it does not exist yet.
+     */
+    private void incrementUses(Node<K, V> node) {
+        FrequencyBucket<K, V> current = node.bucket;
+        FrequencyBucket<K, V> next = current.next;
+        if (next == null || next.frequency != current.frequency + 1) {
+            next = new FrequencyBucket<>(current.frequency + 1, current, next);
+        }
+
+        current.unlink(node);
+        next.append(node);
+        removeIfEmpty(current);
+    }
+
+    /**
+     * Moves the node to the bucket with the given usage count, if it is higher than its current one.
+     */
+    private void moveToFrequency(Node<K, V> node, int frequency) {
+        FrequencyBucket<K, V> current = node.bucket;
+        if (frequency <= current.frequency) {
+            return;
+        }
+
+        FrequencyBucket<K, V> previous = current;
+        while (previous.next != null && previous.next.frequency <= frequency) {
+            previous = previous.next;
+        }
+
+        FrequencyBucket<K, V> target = previous.frequency == frequency
+            ? previous
+            : new FrequencyBucket<>(frequency, previous, previous.next);
+
+        current.unlink(node);
+        target.append(node);
+        removeIfEmpty(current);
+    }
+
+    private void removeIfEmpty(FrequencyBucket<K, V> bucket) {
+        if (bucket.head != null) {
+            return;
+        }
+
+        if (bucket.prev != null) {
+            bucket.prev.next = bucket.next;
+        } else {
+            lowestFrequency = bucket.next;
+        }
+
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private V value;
+
+        private FrequencyBucket<K, V> bucket;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class FrequencyBucket<K, V> {
+        private final int frequency;
+
+        private FrequencyBucket<K, V> prev;
+        private FrequencyBucket<K, V> next;
+
+        private Node<K, V> head;
+        private Node<K, V> tail;
+
+        /**
+         * Creates an empty bucket and links it between {@code prev} and {@code next}.
+         */
+        private FrequencyBucket(int frequency, FrequencyBucket<K, V> prev, FrequencyBucket<K, V> next) {
+            this.frequency = frequency;
+            this.prev = prev;
+            this.next = next;
+
+            if (prev != null) {
+                prev.next = this;
+            }
+            if (next != null) {
+                next.prev = this;
+            }
+        }
+
+        private void append(Node<K, V> node) {
+            node.bucket = this;
+            node.prev = tail;
+            node.next = null;
+
+            if (tail != null) {
+                tail.next = node;
+            } else {
+                head = node;
+            }
+            tail = node;
+        }
+
+        private void unlink(Node<K, V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+
+            node.bucket = null;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            Iterator<Node<K, V>> nodes = cache.values().iterator();
+
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                @Override
+                public V next() {
+                    return nodes.next().value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return cache.size();
+        }
     }
 
 }
@@ -2,16 +2,24 @@ package bg.sofia.uni.fmi.mjt.cache;
 
 import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class LeastRecentlyUsedCache<K, V> extends CacheBase<K, V> {
     private static final float LOAD_FACTOR = 0.75f;
     private final LinkedHashMap<K, V> cache;
 
     public LeastRecentlyUsedCache(Storage<K, V> storage, int capacity) {
-        super(storage, capacity);
-        this.cache = new LinkedHashMap<>(capacity, LOAD_FACTOR, true);
+        this(storage, new CacheOptions<>(capacity));
+    }
+
+    public LeastRecentlyUsedCache(Storage<K, V> storage, CacheOptions<K, V> options) {
+        super(storage, options);
+        this.cache = new LinkedHashMap<>(options.getCapacity(), LOAD_FACTOR, true);
     }
 
     @Override
@@ -21,7 +29,7 @@ public class LeastRecentlyUsedCache<K, V> extends CacheBase<K, V> {
 
     @Override
     public void clear() {
-        super.resetHitRate();
+        super.resetState();
         cache.clear();
     }
 
@@ -42,12 +50,28 @@ public class LeastRecentlyUsedCache<K, V> extends CacheBase<K, V> {
         return cache.containsKey(k);
     }
 
-    protected void evictFromCache() {
-        var it = cache.keySet().iterator();
-        if (it.hasNext()) {
-            it.next();
-            it.remove();
+    protected V removeFromCache(K k) {
+        return cache.remove(k);
+    }
+
+    protected Map.Entry<K, V> evictFromCache() {
+        var it = cache.entrySet().iterator();
+        if (!it.hasNext()) {
+            return null;
         }
+
+        Map.Entry<K, V> eldest = it.next();
+        Map.Entry<K, V> evicted = new AbstractMap.SimpleImmutableEntry<>(eldest);
+        it.remove();
+
+        return evicted;
+    }
+
+    List<CacheSnapshot.Item<K, V>> snapshotItems() {
+        List<CacheSnapshot.Item<K, V>> items = new ArrayList<>(cache.size());
+        cache.forEach((k, v) -> items.add(new CacheSnapshot.Item<>(k, v, CacheSnapshot.UNKNOWN_WRITE_TIME, 1)));
+
+        return items;
     }
 
 }
@@ -0,0 +1,55 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers keys which the storage did not have, for a limited time. Once the capacity is reached,
+ * the key added the longest time ago is forgotten, which is also the one closest to expiring.
+ * The cache is thread-safe.
+ */
+final class NegativeCache<K> {
+    private final Clock clock;
+    private final long timeToLiveMillis;
+    private final Map<K, Long> expirationTimes;
+
+    NegativeCache(CacheOptions<K, ?> options) {
+        int capacity = options.getNegativeCacheCapacity();
+
+        this.clock = options.getClock();
+        this.timeToLiveMillis = options.getNegativeCacheTimeToLive().toMillis();
+        this.expirationTimes = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return true if the key was added less than the time to live ago
+     */
+    synchronized boolean contains(K key) {
+        Long expirationTime = expirationTimes.get(key);
+        if (expirationTime == null) {
+            return false;
+        }
+        if (expirationTime <= clock.millis()) {
+            expirationTimes.remove(key);
+            return false;
+        }
+
+        return true;
+    }
+
+    synchronized void add(K key) {
+        // Removed first, so a re-added key moves to the end of the insertion order
+        expirationTimes.remove(key);
+        expirationTimes.put(key, clock.millis() + timeToLiveMillis);
+    }
+
+    synchronized void clear() {
+        expirationTimes.clear();
+    }
+}
@@ -0,0 +1,187 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Second cache tier which keeps serialized values outside the Java heap, so they do not add to the
+ * garbage collection pauses. The memory is allocated lazily in slabs of direct {@link ByteBuffer}s,
+ * up to the given budget. Every slab is split into equal slots of one size class (a power of two), and a
+ * value is stored in a single slot of the smallest class it fits in. When a class runs out of slots
+ * and the budget is exhausted, its least recently stored value is dropped. Slabs are never moved
+ * between size classes, so the budget is split into at least 16 slabs for several classes to get memory.
+ * <p>
+ * Only the values are kept off-heap, the keys stay in an on-heap index. Values which are not
+ * {@link java.io.Serializable} or do not fit in a slab (the smaller of 1 MiB and a sixteenth of the budget)
+ * are not stored at all. The store is thread-safe.
+ */
+final class OffHeapStore<K, V> {
+    private static final int MIN_SLOT_SIZE = 64;
+    private static final int MAX_SLAB_SIZE = 1 << 20;
+    private static final int MIN_SLABS_COUNT = 16;
+
+    private final long budget;
+    private final int slabSize;
+    private final SizeClass<K>[] sizeClasses;
+    private final Map<K, SizeClass<K>> classOf = new HashMap<>();
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final Consumer<K> dropListener;
+
+    /**
+     * @param budget       the maximum number of bytes to allocate
+     * @param dropListener notified of every key whose value is dropped to make room for another one
+     */
+    @SuppressWarnings("unchecked")
+    OffHeapStore(long budget, Consumer<K> dropListener) {
+        this.budget = budget;
+        long largestSlab = Long.highestOneBit(budget / MIN_SLABS_COUNT);
+        this.slabSize = (int) Math.max(MIN_SLOT_SIZE, Math.min(MAX_SLAB_SIZE, largestSlab));
+        this.dropListener = dropListener;
+
+        int classesCount = Integer.numberOfTrailingZeros(slabSize) - Integer.numberOfTrailingZeros(MIN_SLOT_SIZE) + 1;
+        this.sizeClasses = (SizeClass<K>[]) new SizeClass<?>[classesCount];
+        for (int i = 0; i < classesCount; i++) {
+            sizeClasses[i] = new SizeClass<>(MIN_SLOT_SIZE << i);
+        }
+    }
+
+    /**
+     * Stores the value, replacing the one already stored for the key, if any.
+     *
+     * @return true if the value was stored, false if it cannot be serialized or there is no room for it
+     */
+    synchronized boolean put(K key, V value) {
+        discard(key);
+
+        byte[] bytes = Serialization.serialize(value);
+        if (bytes == null || bytes.length > slabSize) {
+            return false;
+        }
+
+        SizeClass<K> sizeClass = sizeClassFor(bytes.length);
+        Slot slot = allocate(sizeClass);
+        while (slot == null && !sizeClass.entries.isEmpty()) {
+            K dropped = dropEldest(sizeClass);
+            dropListener.accept(dropped);
+            slot = allocate(sizeClass);
+        }
+        if (slot == null) {
+            return false;
+        }
+
+        slabs.get(slot.slab()).put(slot.offset(), bytes);
+        sizeClass.entries.put(key, new Entry(slot, bytes.length));
+        classOf.put(key, sizeClass);
+
+        return true;
+    }
+
+    /**
+     * Removes the value stored for the key.
+     *
+     * @return the removed value or null if there was none
+     */
+    synchronized V remove(K key) {
+        SizeClass<K> sizeClass = classOf.remove(key);
+        if (sizeClass == null) {
+            return null;
+        }
+
+        Entry entry = sizeClass.entries.remove(key);
+        byte[] bytes = new byte[entry.length()];
+        slabs.get(entry.slot().slab()).get(entry.slot().offset(), bytes);
+        sizeClass.free.push(entry.slot());
+
+        return deserialize(bytes);
+    }
+
+    /**
+     * Removes the value stored for the key without reading it.
+     *
+     * @return true if there was a value for the key
+     */
+    synchronized boolean discard(K key) {
+        SizeClass<K> sizeClass = classOf.remove(key);
+        if (sizeClass == null) {
+            return false;
+        }
+
+        sizeClass.free.push(sizeClass.entries.remove(key).slot());
+        return true;
+    }
+
+    synchronized int size() {
+        return classOf.size();
+    }
+
+    /**
+     * Removes all values and releases the slabs.
+     */
+    synchronized void clear() {
+        classOf.clear();
+        slabs.clear();
+        for (SizeClass<K> sizeClass : sizeClasses) {
+            sizeClass.entries.clear();
+            sizeClass.free.clear();
+        }
+    }
+
+    private SizeClass<K> sizeClassFor(int length) {
+        int slotSize = Math.max(MIN_SLOT_SIZE, Integer.highestOneBit(Math.max(1, length - 1)) << 1);
+        return sizeClasses[Integer.numberOfTrailingZeros(slotSize) - Integer.numberOfTrailingZeros(MIN_SLOT_SIZE)];
+    }
+
+    private Slot allocate(SizeClass<K> sizeClass) {
+        if (sizeClass.free.isEmpty() && (long) (slabs.size() + 1) * slabSize <= budget) {
+            int slab = slabs.size();
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            for (int offset = 0; offset < slabSize; offset += sizeClass.slotSize) {
+                sizeClass.free.push(new Slot(slab, offset));
+            }
+        }
+
+        return sizeClass.free.poll();
+    }
+
+    private K dropEldest(SizeClass<K> sizeClass) {
+        Iterator<Map.Entry<K, Entry>> it = sizeClass.entries.entrySet().iterator();
+        Map.Entry<K, Entry> eldest = it.next();
+        it.remove();
+        classOf.remove(eldest.getKey());
+        sizeClass.free.push(eldest.getValue().slot());
+
+        return eldest.getKey();
+    }
+
+    private V deserialize(byte[] bytes) {
+        try {
+            return Serialization.deserialize(bytes);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private record Slot(int slab, int offset) {
+    }
+
+    private record Entry(Slot slot, int length) {
+    }
+
+    private static final class SizeClass<K> {
+        private final int slotSize;
+        private final ArrayDeque<Slot> free = new ArrayDeque<>();
+        private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<>();
+
+        private SizeClass(int slotSize) {
+            this.slotSize = slotSize;
+        }
+    }
+}
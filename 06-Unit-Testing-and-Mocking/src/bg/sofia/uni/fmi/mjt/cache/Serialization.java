@@ -0,0 +1,46 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Converts values to bytes and back with the Java serialization, for the caches which keep them
+ * outside the heap.
+ */
+final class Serialization {
+
+    private Serialization() {
+    }
+
+    /**
+     * @return the serialized object, or null if it is not {@link java.io.Serializable}.
+     */
+    static byte[] serialize(Object object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            return null;
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the bytes are not a serialized object of a class known to this JVM
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T deserialize(byte[] bytes) throws IOException {
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) in.readObject();
+        } catch (ClassNotFoundException e) {
+            InvalidObjectException exception = new InvalidObjectException("Unknown class " + e.getMessage());
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the statistics of a cache. All methods are thread-safe and cheap enough for the
+ * lookup path, as every counter is a {@link LongAdder}. A snapshot taken while other threads record
+ * is not atomic as a whole, but every counter in it is accurate.
+ */
+final class StatsCounter {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+
+    void recordHit() {
+        hitCount.increment();
+    }
+
+    void recordMiss() {
+        missCount.increment();
+    }
+
+    void recordLoads(int successes, int failures, long loadTime) {
+        loadSuccessCount.add(successes);
+        loadFailureCount.add(failures);
+        totalLoadTime.add(loadTime);
+    }
+
+    void recordEviction(long weight) {
+        evictionCount.increment();
+        evictionWeight.add(weight);
+    }
+
+    CacheStats snapshot() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+            totalLoadTime.sum(), evictionCount.sum(), evictionWeight.sum());
+    }
+}
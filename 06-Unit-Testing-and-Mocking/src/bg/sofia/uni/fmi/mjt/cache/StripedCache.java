@@ -0,0 +1,219 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Thread-safe cache which splits its capacity between a number of independent segments.
+ * Every key is mapped to exactly one segment and each segment is guarded by its own lock,
+ * so operations on keys living in different segments never contend with each other.
+ * The primary storage is queried outside any segment lock. Expiry and the other options apply to the
+ * cache as a whole, while the eviction policy and the maximum weight are applied by every segment to its own items.
+ */
+public class StripedCache<K, V> extends CacheBase<K, V> {
+    private final CacheBase<K, V>[] segments;
+    private final int segmentMask;
+
+    /**
+     * @param storage          the primary storage behind the cache
+     * @param capacity         the total capacity, split as evenly as possible between the segments
+     * @param concurrencyLevel the desired number of segments. It is rounded up to a power of two
+     *                         and capped at {@code capacity}
+     * @param segmentFactory   creates a single-threaded segment with the given capacity
+     */
+    public StripedCache(Storage<K, V> storage, int capacity, int concurrencyLevel,
+                        IntFunction<? extends CacheBase<K, V>> segmentFactory) {
+        this(storage, new CacheOptions<>(capacity), concurrencyLevel,
+            segmentOptions -> segmentFactory.apply(segmentOptions.getCapacity()));
+    }
+
+    /**
+     * @param storage          the primary storage behind the cache
+     * @param options          the cache options. The capacity and the maximum weight are split as evenly
+     *                         as possible between the segments
+     * @param concurrencyLevel the desired number of segments. It is rounded up to a power of two
+     *                         and capped at the capacity
+     * @param segmentFactory   creates a single-threaded segment with the given options, which carry
+     *                         the segment's share of the capacity and the maximum weight, and the weigher
+     */
+    @SuppressWarnings("unchecked")
+    public StripedCache(Storage<K, V> storage, CacheOptions<K, V> options, int concurrencyLevel,
+                        Function<CacheOptions<K, V>, ? extends CacheBase<K, V>> segmentFactory) {
+        super(storage, options);
+
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be a positive number");
+        }
+
+        int capacity = options.getCapacity();
+        int segmentsCount = segmentsCount(capacity, concurrencyLevel);
+        this.segments = (CacheBase<K, V>[]) new CacheBase<?, ?>[segmentsCount];
+        this.segmentMask = segmentsCount - 1;
+
+        for (int i = 0; i < segmentsCount; i++) {
+            segments[i] = segmentFactory.apply(segmentOptions(options, i, segmentsCount));
+            segments[i].setEvictionListener(this::onEviction);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (CacheBase<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        super.resetState();
+        for (CacheBase<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return an unmodifiable snapshot of the values in all segments.
+     */
+    @Override
+    public Collection<V> values() {
+        List<V> values = new ArrayList<>();
+        for (CacheBase<K, V> segment : segments) {
+            synchronized (segment) {
+                values.addAll(segment.values());
+            }
+        }
+
+        return Collections.unmodifiableList(values);
+    }
+
+    protected V getFromCache(K k) {
+        CacheBase<K, V> segment = segmentFor(k);
+        synchronized (segment) {
+            return segment.getFromCache(k);
+        }
+    }
+
+    protected boolean containsKey(K k) {
+        CacheBase<K, V> segment = segmentFor(k);
+        synchronized (segment) {
+            return segment.containsKey(k);
+        }
+    }
+
+    protected V put(K k, V v) {
+        CacheBase<K, V> segment = segmentFor(k);
+        synchronized (segment) {
+            return segment.put(k, v);
+        }
+    }
+
+    protected V removeFromCache(K k) {
+        CacheBase<K, V> segment = segmentFor(k);
+        synchronized (segment) {
+            return segment.removeFromCache(k);
+        }
+    }
+
+    /**
+     * Evicts an item from the first non-empty segment. The regular miss path does not use it,
+     * as every segment evicts on its own when it is full.
+     */
+    protected Map.Entry<K, V> evictFromCache() {
+        for (CacheBase<K, V> segment : segments) {
+            synchronized (segment) {
+                if (segment.size() > 0) {
+                    return segment.evictFromCache();
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    void addToCache(K key, V value) {
+        CacheBase<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.addToCache(key, value);
+        }
+    }
+
+    @Override
+    void replaceInCache(K key, V value) {
+        CacheBase<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.replaceInCache(key, value);
+        }
+    }
+
+    @Override
+    void deleteFromCache(K key) {
+        CacheBase<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.deleteFromCache(key);
+        }
+    }
+
+    List<CacheSnapshot.Item<K, V>> snapshotItems() {
+        List<CacheSnapshot.Item<K, V>> items = new ArrayList<>();
+        for (CacheBase<K, V> segment : segments) {
+            synchronized (segment) {
+                items.addAll(segment.snapshotItems());
+            }
+        }
+
+        return items;
+    }
+
+    @Override
+    void restoreItem(K key, V value, int frequency) {
+        CacheBase<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.restoreItem(key, value, frequency);
+        }
+    }
+
+    private CacheBase<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    private static <K, V> CacheOptions<K, V> segmentOptions(CacheOptions<K, V> options, int segment,
+                                                            int segmentsCount) {
+        int capacity = options.getCapacity();
+        CacheOptions<K, V> segmentOptions =
+            new CacheOptions<>(capacity / segmentsCount + (segment < capacity % segmentsCount ? 1 : 0));
+
+        long maximumWeight = options.getMaximumWeight();
+        if (maximumWeight != Long.MAX_VALUE) {
+            segmentOptions.setWeigher(options.getWeigher());
+            segmentOptions.setMaximumWeight(
+                Math.max(1, maximumWeight / segmentsCount + (segment < maximumWeight % segmentsCount ? 1 : 0)));
+        }
+
+        return segmentOptions;
+    }
+
+    private static int segmentsCount(int capacity, int concurrencyLevel) {
+        int count = 1;
+        while (count < concurrencyLevel && count * 2 <= capacity) {
+            count *= 2;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,146 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hashed timer wheel. A key scheduled for a deadline is placed in the bucket of the tick the deadline
+ * falls in, so advancing the time only visits the buckets of the ticks that have passed instead of
+ * every scheduled key. Deadlines further than one revolution away stay in their bucket until it comes
+ * round again.
+ */
+final class TimerWheel<K> {
+    private static final int BUCKETS_COUNT = 256;
+
+    private final long tickMillis;
+    private final List<Set<K>> buckets;
+    private final Map<K, Integer> scheduled = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick = -1;
+
+    /**
+     * @param tickMillis the time span covered by a single bucket
+     */
+    TimerWheel(long tickMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.buckets = new ArrayList<>(BUCKETS_COUNT);
+        for (int i = 0; i < BUCKETS_COUNT; i++) {
+            buckets.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Schedules the key for the given deadline, replacing its previous deadline, if any.
+     */
+    void schedule(K key, long deadline) {
+        lock.lock();
+        try {
+            cancelLocked(key);
+
+            int bucket = bucketOf(deadline);
+            buckets.get(bucket).add(key);
+            scheduled.put(key, bucket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void cancel(K key) {
+        lock.lock();
+        try {
+            cancelLocked(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            buckets.forEach(Set::clear);
+            scheduled.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Visits the buckets of all ticks up to {@code now}. Every key found there is checked against its
+     * actual deadline, as given by {@code deadlines}, since it may have been extended after scheduling:
+     * keys which are due are removed from the wheel and returned, the rest are moved to the bucket of
+     * their current deadline, and keys without a deadline ({@link Long#MAX_VALUE}) are dropped.
+     * If another thread is already advancing the wheel the call returns immediately.
+     *
+     * @return the keys whose deadline is not after {@code now}
+     */
+    List<K> advance(long now, ToLongFunction<K> deadlines) {
+        if (!lock.tryLock()) {
+            return List.of();
+        }
+
+        try {
+            long targetTick = now / tickMillis;
+            if (targetTick <= currentTick) {
+                return List.of();
+            }
+
+            long fromTick = Math.max(currentTick + 1, targetTick - BUCKETS_COUNT + 1);
+            currentTick = targetTick;
+
+            List<K> due = new ArrayList<>();
+            for (long tick = fromTick; tick <= targetTick; tick++) {
+                expireBucket((int) (tick % BUCKETS_COUNT), now, deadlines, due);
+            }
+
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expireBucket(int bucket, long now, ToLongFunction<K> deadlines, List<K> due) {
+        List<K> rescheduled = new ArrayList<>();
+
+        Iterator<K> it = buckets.get(bucket).iterator();
+        while (it.hasNext()) {
+            K key = it.next();
+            long deadline = deadlines.applyAsLong(key);
+            if (deadline == Long.MAX_VALUE) {
+                it.remove();
+                scheduled.remove(key);
+            } else if (deadline <= now) {
+                it.remove();
+                scheduled.remove(key);
+                due.add(key);
+            } else if (bucketOf(deadline) != bucket) {
+                it.remove();
+                rescheduled.add(key);
+            }
+        }
+
+        for (K key : rescheduled) {
+            int newBucket = bucketOf(deadlines.applyAsLong(key));
+            buckets.get(newBucket).add(key);
+            scheduled.put(key, newBucket);
+        }
+    }
+
+    private void cancelLocked(K key) {
+        Integer bucket = scheduled.remove(key);
+        if (bucket != null) {
+            buckets.get(bucket).remove(key);
+        }
+    }
+
+    private int bucketOf(long deadline) {
+        return (int) ((deadline / tickMillis) % BUCKETS_COUNT);
+    }
+}
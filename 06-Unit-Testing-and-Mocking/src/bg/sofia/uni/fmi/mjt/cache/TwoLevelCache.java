@@ -0,0 +1,224 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache hierarchy with a small per-thread LRU (L1) in front of a shared thread-safe cache (L2).
+ * L1 hits touch only memory owned by the calling thread, apart from reading the two versions
+ * the item's L1 copy is validated against.
+ * <p>
+ * Every key maps to one of a fixed number of version slots. Whenever L2 evicts, expires or refreshes
+ * a key, the version of its slot is bumped, and {@link #clear()} bumps a global epoch. An L1 copy
+ * remembers the versions seen before reading the item from L2 and is discarded as soon as either of
+ * them changes, so L1 never returns a value which L2 no longer holds. Unrelated keys sharing a slot
+ * only cause spurious L1 misses.
+ * <p>
+ * As L2 removes expired items lazily and L1 hits never reach it, an L1 copy also remembers the time
+ * its item expires at in L2 and is discarded once that time comes. Accesses served by L1 do not
+ * extend the item's lifetime, so with expiry after access the copy is dropped somewhat early and
+ * the next get goes to L2, which does.
+ */
+public class TwoLevelCache<K, V> implements Cache<K, V> {
+    private static final int MAX_VERSION_SLOTS = 1 << 20;
+
+    private final CacheBase<K, V> l2;
+    private final ThreadLocal<LinkedHashMap<K, L1Entry<V>>> l1;
+
+    private final AtomicLongArray versions;
+    private final int versionMask;
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l1Misses = new LongAdder();
+    private volatile CacheStats hitRateBaseline = CacheStats.EMPTY;
+
+    /**
+     * @param l2         a thread-safe cache, such as a {@link StripedCache}, shared between all threads
+     * @param l1Capacity the maximum number of items in the L1 of every thread
+     * @throws IllegalArgumentException if the L2 cache is null or the L1 capacity is not positive
+     */
+    public TwoLevelCache(CacheBase<K, V> l2, int l1Capacity) {
+        if (l2 == null) {
+            throw new IllegalArgumentException("L2 cache cannot be null!");
+        }
+        if (l1Capacity <= 0) {
+            throw new IllegalArgumentException("L1 capacity must be a positive number");
+        }
+
+        this.l2 = l2;
+        this.l1 = ThreadLocal.withInitial(() -> new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, L1Entry<V>> eldest) {
+                return size() > l1Capacity;
+            }
+        });
+
+        int slots = 1;
+        while (slots < l2.getCapacity() && slots < MAX_VERSION_SLOTS) {
+            slots <<= 1;
+        }
+        this.versions = new AtomicLongArray(slots);
+        this.versionMask = slots - 1;
+
+        l2.addInvalidationListener(key -> versions.incrementAndGet(slotOf(key)));
+    }
+
+    @Override
+    public V get(K key) throws ItemNotFound {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null!");
+        }
+
+        LinkedHashMap<K, L1Entry<V>> local = l1.get();
+        int slot = slotOf(key);
+
+        L1Entry<V> entry = local.get(key);
+        if (entry != null) {
+            if (isValid(entry, slot, l2.expiryTime())) {
+                l1Hits.increment();
+                return entry.value();
+            }
+            local.remove(key);
+        }
+        l1Misses.increment();
+
+        // The versions are read before L2, so an invalidation racing with the read discards the copy
+        long currentEpoch = epoch.get();
+        long version = versions.get(slot);
+        V value = l2.get(key);
+        local.put(key, new L1Entry<>(value, currentEpoch, version, l2.expiresAt(key)));
+
+        return value;
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys cannot be null!");
+        }
+
+        LinkedHashMap<K, L1Entry<V>> local = l1.get();
+        Map<K, V> fromL1 = new HashMap<>();
+        Map<K, L1Entry<V>> missing = new LinkedHashMap<>();
+        long currentEpoch = epoch.get();
+        long now = l2.expiryTime();
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key cannot be null!");
+            }
+            if (fromL1.containsKey(key) || missing.containsKey(key)) {
+                continue;
+            }
+
+            int slot = slotOf(key);
+            L1Entry<V> entry = local.get(key);
+            if (entry != null && isValid(entry, slot, now)) {
+                l1Hits.increment();
+                fromL1.put(key, entry.value());
+            } else {
+                l1Misses.increment();
+                missing.put(key, new L1Entry<>(null, currentEpoch, versions.get(slot), Long.MAX_VALUE));
+            }
+        }
+
+        Map<K, V> loaded = missing.isEmpty() ? Map.of() : l2.getAll(missing.keySet());
+
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = fromL1.containsKey(key) ? fromL1.get(key) : loaded.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        loaded.forEach((key, value) -> {
+            L1Entry<V> versionsSeen = missing.get(key);
+            local.put(key, new L1Entry<>(value, versionsSeen.epoch(), versionsSeen.version(), l2.expiresAt(key)));
+        });
+
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return l2.size();
+    }
+
+    /**
+     * Removes all items from L2 and invalidates the L1 of every thread.
+     */
+    @Override
+    public void clear() {
+        // L2 is cleared first, so no thread can copy an item to L1 under the new epoch before it is gone
+        l2.clear();
+        epoch.incrementAndGet();
+        hitRateBaseline = stats();
+    }
+
+    /**
+     * @return the proportion of get(K) calls served by either level since the last clear().
+     */
+    @Override
+    public double getHitRate() {
+        return stats().minus(hitRateBaseline).hitRate();
+    }
+
+    /**
+     * @return the combined statistics of both levels. A request is a hit if either level had the item.
+     */
+    @Override
+    public CacheStats stats() {
+        CacheStats l2Stats = l2.stats();
+        return new CacheStats(l1Hits.sum() + l2Stats.hitCount(), l2Stats.missCount(), l2Stats.loadSuccessCount(),
+            l2Stats.loadFailureCount(), l2Stats.totalLoadTime(), l2Stats.evictionCount(), l2Stats.evictionWeight());
+    }
+
+    /**
+     * @return the statistics of the per-thread caches, summed over all threads. Only the hit and miss
+     * counts are tracked.
+     */
+    public CacheStats l1Stats() {
+        return new CacheStats(l1Hits.sum(), l1Misses.sum(), 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * @return the statistics of the shared cache. It is only queried on L1 misses.
+     */
+    public CacheStats l2Stats() {
+        return l2.stats();
+    }
+
+    /**
+     * @return unmodifiable collection of the values in L2, which holds every value any L1 may return.
+     */
+    @Override
+    public Collection<V> values() {
+        return l2.values();
+    }
+
+    @Override
+    public void saveSnapshot(Path file) throws IOException {
+        l2.saveSnapshot(file);
+    }
+
+    private boolean isValid(L1Entry<V> entry, int slot, long now) {
+        return entry.epoch() == epoch.get() && entry.version() == versions.get(slot) && now < entry.expiresAt();
+    }
+
+    private int slotOf(K key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & versionMask;
+    }
+
+    private record L1Entry<V>(V value, long epoch, long version, long expiresAt) {
+    }
+}
@@ -0,0 +1,16 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+/**
+ * Calculates the weight of a cached item, e.g. the approximate number of bytes it occupies.
+ * A cache with a maximum weight evicts items until the total weight of its items, including the one
+ * being added, does not exceed the maximum.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * @return the weight of the item. It must not be negative and must not change while the item is cached.
+     */
+    int weigh(K key, V value);
+
+}
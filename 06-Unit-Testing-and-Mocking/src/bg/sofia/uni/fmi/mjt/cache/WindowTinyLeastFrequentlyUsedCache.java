@@ -0,0 +1,208 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * W-TinyLFU cache. New items enter a small LRU window which absorbs bursts and scans. Items leaving
+ * the window compete for a place in the main area with its eviction victim, and the one with the
+ * higher estimated access frequency (according to a {@link FrequencySketch}) stays. The main area
+ * is a segmented LRU: items hit while on probation are promoted to the protected segment, and items
+ * pushed out of the protected segment go back to probation.
+ */
+public class WindowTinyLeastFrequentlyUsedCache<K, V> extends CacheBase<K, V> {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+    private static final int MAX_FREQUENCY = 15; // The sketch counters saturate at it
+
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+
+    private final LinkedHashMap<K, V> window;
+    private final LinkedHashMap<K, V> probation;
+    private final LinkedHashMap<K, V> protectedSegment;
+    private final FrequencySketch<K> sketch;
+
+    public WindowTinyLeastFrequentlyUsedCache(Storage<K, V> storage, int capacity) {
+        this(storage, new CacheOptions<>(capacity));
+    }
+
+    public WindowTinyLeastFrequentlyUsedCache(Storage<K, V> storage, CacheOptions<K, V> options) {
+        super(storage, options);
+
+        int capacity = options.getCapacity();
+
+        this.windowCapacity = Math.max(1, capacity * WINDOW_PERCENTAGE / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * PROTECTED_PERCENTAGE / 100;
+
+        this.window = new LinkedHashMap<>(windowCapacity, LOAD_FACTOR, true);
+        this.probation = new LinkedHashMap<>(mainCapacity - protectedCapacity, LOAD_FACTOR, true);
+        this.protectedSegment = new LinkedHashMap<>(protectedCapacity, LOAD_FACTOR, true);
+        this.sketch = new FrequencySketch<>(capacity);
+    }
+
+    @Override
+    public int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    @Override
+    public void clear() {
+        super.resetState();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        sketch.clear();
+    }
+
+    /**
+     * @return unmodifiable collection of the values in the window, probation and protected segments, in that order.
+     */
+    @Override
+    public Collection<V> values() {
+        List<V> values = new ArrayList<>(size());
+        values.addAll(window.values());
+        values.addAll(probation.values());
+        values.addAll(protectedSegment.values());
+
+        return Collections.unmodifiableList(values);
+    }
+
+    protected V getFromCache(K k) {
+        sketch.increment(k);
+
+        V value = window.get(k);
+        if (value != null) {
+            return value;
+        }
+
+        value = probation.remove(k);
+        if (value != null) {
+            promote(k, value);
+            return value;
+        }
+
+        return protectedSegment.get(k);
+    }
+
+    protected V put(K k, V v) {
+        if (window.containsKey(k)) {
+            return window.put(k, v);
+        }
+        if (probation.containsKey(k)) {
+            return probation.put(k, v);
+        }
+        if (protectedSegment.containsKey(k)) {
+            return protectedSegment.put(k, v);
+        }
+
+        window.put(k, v);
+        if (window.size() > windowCapacity) {
+            K eldest = eldestKey(window);
+            probation.put(eldest, window.remove(eldest));
+        }
+
+        return null;
+    }
+
+    protected boolean containsKey(K k) {
+        return window.containsKey(k) || probation.containsKey(k) || protectedSegment.containsKey(k);
+    }
+
+    protected V removeFromCache(K k) {
+        V value = window.remove(k);
+        if (value == null) {
+            value = probation.remove(k);
+        }
+        if (value == null) {
+            value = protectedSegment.remove(k);
+        }
+
+        return value;
+    }
+
+    /**
+     * Frees a slot in the window for the item about to be added. The window's least recently used
+     * item is admitted to the main area only if it is accessed more frequently than the main area's victim.
+     */
+    protected Map.Entry<K, V> evictFromCache() {
+        if (window.isEmpty()) {
+            return evictFromMain();
+        }
+
+        K candidate = eldestKey(window);
+        if (mainCapacity == 0) {
+            return evict(window, candidate);
+        }
+
+        K victim = probation.isEmpty() ? eldestKey(protectedSegment) : eldestKey(probation);
+        if (victim != null && sketch.frequency(candidate) > sketch.frequency(victim)) {
+            Map.Entry<K, V> evicted = evictFromMain();
+            probation.put(candidate, window.remove(candidate));
+            return evicted;
+        }
+
+        return evict(window, candidate);
+    }
+
+    /**
+     * @return the items in the window, probation and protected segments, each from least to most recently used,
+     * with their estimated access frequency.
+     */
+    List<CacheSnapshot.Item<K, V>> snapshotItems() {
+        List<CacheSnapshot.Item<K, V>> items = new ArrayList<>(size());
+        for (LinkedHashMap<K, V> segment : List.of(window, probation, protectedSegment)) {
+            segment.forEach((k, v) ->
+                items.add(new CacheSnapshot.Item<>(k, v, CacheSnapshot.UNKNOWN_WRITE_TIME, sketch.frequency(k))));
+        }
+
+        return items;
+    }
+
+    /**
+     * Restores the item's estimated frequency before adding it, so it competes for admission as it did before.
+     */
+    @Override
+    void restoreItem(K key, V value, int frequency) {
+        for (int i = 0; i < Math.min(frequency, MAX_FREQUENCY); i++) {
+            sketch.increment(key);
+        }
+
+        addToCache(key, value);
+    }
+
+    private Map.Entry<K, V> evictFromMain() {
+        LinkedHashMap<K, V> segment = probation.isEmpty() ? protectedSegment : probation;
+        K victim = eldestKey(segment);
+
+        return victim == null ? null : evict(segment, victim);
+    }
+
+    private Map.Entry<K, V> evict(LinkedHashMap<K, V> segment, K key) {
+        return new AbstractMap.SimpleImmutableEntry<>(key, segment.remove(key));
+    }
+
+    private void promote(K k, V v) {
+        protectedSegment.put(k, v);
+        if (protectedSegment.size() > protectedCapacity) {
+            K demoted = eldestKey(protectedSegment);
+            probation.put(demoted, protectedSegment.remove(demoted));
+        }
+    }
+
+    private static <K> K eldestKey(LinkedHashMap<K, ?> segment) {
+        var it = segment.keySet().iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+}
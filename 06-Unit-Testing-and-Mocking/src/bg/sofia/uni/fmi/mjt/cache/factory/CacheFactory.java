@@ -1,12 +1,27 @@
 package bg.sofia.uni.fmi.mjt.cache.factory;
 
+import bg.sofia.uni.fmi.mjt.cache.AsyncCache;
 import bg.sofia.uni.fmi.mjt.cache.Cache;
+import bg.sofia.uni.fmi.mjt.cache.CacheBase;
+import bg.sofia.uni.fmi.mjt.cache.CacheOptions;
+import bg.sofia.uni.fmi.mjt.cache.DefaultAsyncCache;
 import bg.sofia.uni.fmi.mjt.cache.LeastFrequentlyUsedCache;
 import bg.sofia.uni.fmi.mjt.cache.LeastRecentlyUsedCache;
+import bg.sofia.uni.fmi.mjt.cache.StripedCache;
+import bg.sofia.uni.fmi.mjt.cache.TwoLevelCache;
+import bg.sofia.uni.fmi.mjt.cache.WindowTinyLeastFrequentlyUsedCache;
 import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 public interface CacheFactory<K, V> {
     int DEFAULT_CAPACITY = 10_000;
+    int DEFAULT_CONCURRENCY_LEVEL = 16;
 
     /**
      * Constructs a new Cache<K, V> with the specified maximum capacity, eviction
@@ -18,10 +33,7 @@ public interface CacheFactory<K, V> {
         if (capacity <= 0) {
             throw new IllegalArgumentException("Capacity must be a positive number");
         }
-        return switch (policy) {
-            case LEAST_RECENTLY_USED -> new LeastRecentlyUsedCache<>(storage, capacity);
-            case LEAST_FREQUENTLY_USED -> new LeastFrequentlyUsedCache<>(storage, capacity);
-        };
+        return newCache(storage, new CacheOptions<>(capacity), policy);
     }
 
     /**
@@ -29,10 +41,148 @@ public interface CacheFactory<K, V> {
      * specified eviction policy, and storage.
      */
     static <K, V> Cache<K, V> getInstance(Storage<K, V> storage, EvictionPolicy policy) {
-        return switch (policy) {
-            case LEAST_RECENTLY_USED -> new LeastRecentlyUsedCache<>(storage, DEFAULT_CAPACITY);
-            case LEAST_FREQUENTLY_USED -> new LeastFrequentlyUsedCache<>(storage, DEFAULT_CAPACITY);
+        return newCache(storage, new CacheOptions<>(DEFAULT_CAPACITY), policy);
+    }
+
+    /**
+     * Constructs a new Cache<K, V> with the specified eviction policy, storage, and options,
+     * such as the maximum capacity and the expiry of the items.
+     */
+    static <K, V> Cache<K, V> getInstance(Storage<K, V> storage, EvictionPolicy policy, CacheOptions<K, V> options) {
+        return newCache(storage, options, policy);
+    }
+
+    /**
+     * Constructs a new thread-safe Cache<K, V> with the specified maximum capacity, eviction
+     * policy, and storage. The capacity is split between up to {@code concurrencyLevel} segments,
+     * each of them applying the eviction policy to its own items.
+     *
+     * @throws IllegalArgumentException if the given capacity or concurrency level is less than or equal to zero
+     */
+    static <K, V> Cache<K, V> getConcurrentInstance(Storage<K, V> storage, int capacity, EvictionPolicy policy,
+                                                    int concurrencyLevel) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be a positive number");
+        }
+        return newConcurrentCache(storage, new CacheOptions<>(capacity), policy, concurrencyLevel);
+    }
+
+    /**
+     * Constructs a new thread-safe Cache<K, V> with the specified maximum capacity, eviction
+     * policy, and storage, split between 16 segments.
+     *
+     * @throws IllegalArgumentException if the given capacity is less than or equal to zero
+     */
+    static <K, V> Cache<K, V> getConcurrentInstance(Storage<K, V> storage, int capacity, EvictionPolicy policy) {
+        return getConcurrentInstance(storage, capacity, policy, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Constructs a new thread-safe Cache<K, V> with the specified eviction policy, storage, and options,
+     * split between 16 segments.
+     */
+    static <K, V> Cache<K, V> getConcurrentInstance(Storage<K, V> storage, EvictionPolicy policy,
+                                                    CacheOptions<K, V> options) {
+        return newConcurrentCache(storage, options, policy, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Constructs a new AsyncCache<K, V> on top of a thread-safe cache with the specified eviction policy,
+     * storage, and options, split between 16 segments. The missing items are loaded on the given executor,
+     * which may as well start a new (e.g. virtual) thread per load.
+     */
+    static <K, V> AsyncCache<K, V> getAsyncInstance(Storage<K, V> storage, EvictionPolicy policy,
+                                                    CacheOptions<K, V> options, Executor executor) {
+        return new DefaultAsyncCache<>(newConcurrentCache(storage, options, policy, DEFAULT_CONCURRENCY_LEVEL),
+            executor);
+    }
+
+    /**
+     * Constructs a new AsyncCache<K, V> with the specified maximum capacity, eviction policy, and storage.
+     * The missing items are loaded on the common fork-join pool.
+     *
+     * @throws IllegalArgumentException if the given capacity is less than or equal to zero
+     */
+    static <K, V> AsyncCache<K, V> getAsyncInstance(Storage<K, V> storage, int capacity, EvictionPolicy policy) {
+        return getAsyncInstance(storage, policy, new CacheOptions<>(capacity), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new thread-safe two-level Cache<K, V>: every thread gets its own LRU cache of
+     * {@code l1Capacity} items in front of a shared cache with the specified eviction policy, storage,
+     * and options, split between 16 segments.
+     *
+     * @throws IllegalArgumentException if the given L1 capacity is less than or equal to zero
+     */
+    static <K, V> TwoLevelCache<K, V> getTwoLevelInstance(Storage<K, V> storage, EvictionPolicy policy,
+                                                          CacheOptions<K, V> options, int l1Capacity) {
+        return new TwoLevelCache<>(newConcurrentCache(storage, options, policy, DEFAULT_CONCURRENCY_LEVEL),
+            l1Capacity);
+    }
+
+    /**
+     * Constructs a new Cache<K, V> like {@link #getInstance(Storage, EvictionPolicy, CacheOptions)} and fills it
+     * with the items saved in the given snapshot, if it exists.
+     *
+     * @throws IOException if the snapshot exists, but cannot be read or is not a valid snapshot
+     */
+    static <K, V> Cache<K, V> restoreInstance(Storage<K, V> storage, EvictionPolicy policy,
+                                              CacheOptions<K, V> options, Path snapshot) throws IOException {
+        return restore(newCache(storage, options, policy), snapshot);
+    }
+
+    /**
+     * Constructs a new thread-safe Cache<K, V> like {@link #getConcurrentInstance(Storage, EvictionPolicy,
+     * CacheOptions)} and fills it with the items saved in the given snapshot, if it exists.
+     *
+     * @throws IOException if the snapshot exists, but cannot be read or is not a valid snapshot
+     */
+    static <K, V> Cache<K, V> restoreConcurrentInstance(Storage<K, V> storage, EvictionPolicy policy,
+                                                        CacheOptions<K, V> options, Path snapshot)
+        throws IOException {
+        return restore(newConcurrentCache(storage, options, policy, DEFAULT_CONCURRENCY_LEVEL), snapshot);
+    }
+
+    private static <K, V> Cache<K, V> restore(CacheBase<K, V> cache, Path snapshot) throws IOException {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null!");
+        }
+
+        if (Files.exists(snapshot)) {
+            cache.loadSnapshot(snapshot);
+        }
+        return cache;
+    }
+
+    private static <K, V> StripedCache<K, V> newConcurrentCache(Storage<K, V> storage, CacheOptions<K, V> options,
+                                                                EvictionPolicy policy, int concurrencyLevel) {
+        return snapshotOnShutdown(new StripedCache<>(storage, options, concurrencyLevel,
+            segmentOptions -> newCache(storage, segmentOptions, policy)), options);
+    }
+
+    private static <K, V> CacheBase<K, V> newCache(Storage<K, V> storage, CacheOptions<K, V> options,
+                                                   EvictionPolicy policy) {
+        CacheBase<K, V> cache = switch (policy) {
+            case LEAST_RECENTLY_USED -> new LeastRecentlyUsedCache<>(storage, options);
+            case LEAST_FREQUENTLY_USED -> new LeastFrequentlyUsedCache<>(storage, options);
+            case WINDOW_TINY_LEAST_FREQUENTLY_USED -> new WindowTinyLeastFrequentlyUsedCache<>(storage, options);
         };
+        return snapshotOnShutdown(cache, options);
+    }
+
+    private static <K, V, C extends CacheBase<K, V>> C snapshotOnShutdown(C cache, CacheOptions<K, V> options) {
+        Path snapshot = options.getShutdownSnapshotFile();
+        if (snapshot != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    cache.saveSnapshot(snapshot);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not save cache snapshot to " + snapshot, e);
+                }
+            }, "cache-snapshot"));
+        }
+
+        return cache;
     }
 
 }
@@ -1,5 +1,5 @@
 package bg.sofia.uni.fmi.mjt.cache.factory;
 
 public enum EvictionPolicy {
-    LEAST_RECENTLY_USED, LEAST_FREQUENTLY_USED
+    LEAST_RECENTLY_USED, LEAST_FREQUENTLY_USED, WINDOW_TINY_LEAST_FREQUENTLY_USED
 }
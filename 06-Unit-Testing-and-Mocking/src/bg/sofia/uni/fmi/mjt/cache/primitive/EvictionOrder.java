@@ -0,0 +1,35 @@
+package bg.sofia.uni.fmi.mjt.cache.primitive;
+
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+
+/**
+ * Eviction order of the entries of a primitive-key cache. The entries are identified by their index
+ * in the cache's entry arrays, so the order is kept in primitive arrays as well and no operation allocates.
+ */
+abstract class EvictionOrder {
+
+    static EvictionOrder of(EvictionPolicy policy, int capacity) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Eviction policy cannot be null!");
+        }
+
+        return switch (policy) {
+            case LEAST_RECENTLY_USED -> new LeastRecentlyUsedOrder(capacity);
+            case LEAST_FREQUENTLY_USED -> new LeastFrequentlyUsedOrder(capacity);
+            default -> throw new IllegalArgumentException("Eviction policy " + policy + " is not supported");
+        };
+    }
+
+    abstract void added(int entry);
+
+    abstract void accessed(int entry);
+
+    abstract void removed(int entry);
+
+    /**
+     * @return the entry to evict next. Meant to be called only when there is at least one entry.
+     */
+    abstract int victim();
+
+    abstract void clear();
+}
@@ -0,0 +1,145 @@
+package bg.sofia.uni.fmi.mjt.cache.primitive;
+
+/**
+ * Constant time LFU order with the same semantics as {@link bg.sofia.uni.fmi.mjt.cache.LeastFrequentlyUsedCache}:
+ * the entries are grouped in buckets by usage count, the buckets form a doubly linked list in ascending
+ * order of their count, and among the entries with minimal usage count the most recently added one is
+ * evicted. Both the entries and the buckets are linked through primitive arrays. There are never more
+ * non-empty buckets than entries, plus one while an entry moves to a new bucket.
+ */
+final class LeastFrequentlyUsedOrder extends EvictionOrder {
+    private static final int NONE = -1;
+
+    private final int[] bucketOf;
+    private final int[] prev;
+    private final int[] next;
+
+    private final int[] frequency;
+    private final int[] bucketHead;
+    private final int[] bucketTail;
+    private final int[] bucketPrev;
+    private final int[] bucketNext;
+    private final int[] freeBuckets;
+    private int freeBucketsCount;
+    private int lowest = NONE;
+
+    LeastFrequentlyUsedOrder(int capacity) {
+        this.bucketOf = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+
+        int buckets = capacity + 1;
+        this.frequency = new int[buckets];
+        this.bucketHead = new int[buckets];
+        this.bucketTail = new int[buckets];
+        this.bucketPrev = new int[buckets];
+        this.bucketNext = new int[buckets];
+        this.freeBuckets = new int[buckets];
+        clear();
+    }
+
+    @Override
+    void added(int entry) {
+        if (lowest == NONE || frequency[lowest] != 1) {
+            lowest = newBucket(1, NONE, lowest);
+        }
+        append(lowest, entry);
+    }
+
+    @Override
+    void accessed(int entry) {
+        int current = bucketOf[entry];
+        int following = bucketNext[current];
+        if (following == NONE || frequency[following] != frequency[current] + 1) {
+            following = newBucket(frequency[current] + 1, current, following);
+        }
+
+        unlink(entry);
+        append(following, entry);
+        removeIfEmpty(current);
+    }
+
+    @Override
+    void removed(int entry) {
+        int bucket = bucketOf[entry];
+        unlink(entry);
+        removeIfEmpty(bucket);
+    }
+
+    @Override
+    int victim() {
+        return bucketTail[lowest];
+    }
+
+    @Override
+    void clear() {
+        freeBucketsCount = freeBuckets.length;
+        for (int i = 0; i < freeBuckets.length; i++) {
+            freeBuckets[i] = freeBuckets.length - 1 - i;
+        }
+        lowest = NONE;
+    }
+
+    private int newBucket(int bucketFrequency, int previous, int following) {
+        int bucket = freeBuckets[--freeBucketsCount];
+        frequency[bucket] = bucketFrequency;
+        bucketHead[bucket] = NONE;
+        bucketTail[bucket] = NONE;
+        bucketPrev[bucket] = previous;
+        bucketNext[bucket] = following;
+
+        if (previous != NONE) {
+            bucketNext[previous] = bucket;
+        }
+        if (following != NONE) {
+            bucketPrev[following] = bucket;
+        }
+
+        return bucket;
+    }
+
+    private void removeIfEmpty(int bucket) {
+        if (bucketHead[bucket] != NONE) {
+            return;
+        }
+
+        if (bucketPrev[bucket] != NONE) {
+            bucketNext[bucketPrev[bucket]] = bucketNext[bucket];
+        } else {
+            lowest = bucketNext[bucket];
+        }
+        if (bucketNext[bucket] != NONE) {
+            bucketPrev[bucketNext[bucket]] = bucketPrev[bucket];
+        }
+
+        freeBuckets[freeBucketsCount++] = bucket;
+    }
+
+    private void append(int bucket, int entry) {
+        bucketOf[entry] = bucket;
+        prev[entry] = bucketTail[bucket];
+        next[entry] = NONE;
+
+        if (bucketTail[bucket] != NONE) {
+            next[bucketTail[bucket]] = entry;
+        } else {
+            bucketHead[bucket] = entry;
+        }
+        bucketTail[bucket] = entry;
+    }
+
+    private void unlink(int entry) {
+        int bucket = bucketOf[entry];
+        if (prev[entry] != NONE) {
+            next[prev[entry]] = next[entry];
+        } else {
+            bucketHead[bucket] = next[entry];
+        }
+
+        if (next[entry] != NONE) {
+            prev[next[entry]] = prev[entry];
+        } else {
+            bucketTail[bucket] = prev[entry];
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package bg.sofia.uni.fmi.mjt.cache.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Doubly linked list of entries from least to most recently used.
+ */
+final class LeastRecentlyUsedOrder extends EvictionOrder {
+    private static final int NONE = -1;
+
+    private final int[] prev;
+    private final int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+
+    LeastRecentlyUsedOrder(int capacity) {
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+    }
+
+    @Override
+    void added(int entry) {
+        prev[entry] = tail;
+        next[entry] = NONE;
+        if (tail != NONE) {
+            next[tail] = entry;
+        } else {
+            head = entry;
+        }
+        tail = entry;
+    }
+
+    @Override
+    void accessed(int entry) {
+        if (entry != tail) {
+            removed(entry);
+            added(entry);
+        }
+    }
+
+    @Override
+    void removed(int entry) {
+        if (prev[entry] != NONE) {
+            next[prev[entry]] = next[entry];
+        } else {
+            head = next[entry];
+        }
+
+        if (next[entry] != NONE) {
+            prev[next[entry]] = prev[entry];
+        } else {
+            tail = prev[entry];
+        }
+    }
+
+    @Override
+    int victim() {
+        return head;
+    }
+
+    @Override
+    void clear() {
+        Arrays.fill(prev, NONE);
+        Arrays.fill(next, NONE);
+        head = NONE;
+        tail = NONE;
+    }
+}
@@ -0,0 +1,69 @@
+package bg.sofia.uni.fmi.mjt.cache.primitive;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+
+/**
+ * Cache with {@code long} keys which does not box them and does not allocate on lookups. The keys are
+ * kept in a {@code long} array parallel to the entries of {@link PrimitiveKeyCache}, and the eviction
+ * order is kept in primitive arrays too. Only misses box the key, to query the storage. Supports the
+ * least recently used and least frequently used eviction policies.
+ */
+public class LongKeyCache<V> extends PrimitiveKeyCache<V> {
+    private final Storage<Long, V> storage;
+    private final long[] keys;
+
+    /**
+     * @throws IllegalArgumentException if the capacity is not positive or the eviction policy is not supported
+     */
+    public LongKeyCache(Storage<Long, V> storage, int capacity, EvictionPolicy policy) {
+        super(capacity, policy);
+
+        this.storage = storage;
+        this.keys = new long[capacity];
+    }
+
+    /**
+     * @return the value associated with the key, if it is available either in the cache, or in the storage.
+     * @throws ItemNotFound if the item is not available
+     */
+    public V get(long key) throws ItemNotFound {
+        V cached = lookedUp(find(key));
+        if (cached != null) {
+            return cached;
+        }
+
+        V value = storage.retrieve(key);
+        if (value == null) {
+            throw new ItemNotFound(String.format("Item with key %s not found", key));
+        }
+
+        int entry = allocate();
+        keys[entry] = key;
+        added(entry, value);
+        return value;
+    }
+
+    @Override
+    int hashOf(int entry) {
+        return hash(keys[entry]);
+    }
+
+    /**
+     * @return the index of the key's entry plus one, or {@link #EMPTY} if the key is not in the cache.
+     */
+    private int find(long key) {
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == EMPTY || keys[entry - 1] == key) {
+                return entry;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
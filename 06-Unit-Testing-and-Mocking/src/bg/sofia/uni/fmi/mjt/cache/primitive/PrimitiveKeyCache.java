@@ -0,0 +1,162 @@
+package bg.sofia.uni.fmi.mjt.cache.primitive;
+
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entry storage shared by the primitive-key caches. The values are kept in an array of entries, found
+ * through an open addressing (linear probing) hash table of entry indices, and evicted in the
+ * {@link EvictionOrder} of the policy. Subclasses keep the keys in a primitive array parallel to the
+ * values, and look them up in {@link #table} themselves, so the keys are never boxed.
+ */
+abstract class PrimitiveKeyCache<V> {
+    static final int EMPTY = 0;
+
+    private final int capacity;
+    private final EvictionOrder order;
+    private final Object[] values;
+
+    /**
+     * Holds the index of an entry plus one, or {@link #EMPTY}, in the slot its key hashes to or after it.
+     */
+    final int[] table;
+    final int mask;
+    private int size;
+
+    private long totalHits;
+    private long successfulHits;
+
+    /**
+     * @throws IllegalArgumentException if the capacity is not positive or the eviction policy is not supported
+     */
+    PrimitiveKeyCache(int capacity, EvictionPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be a positive number");
+        }
+
+        this.capacity = capacity;
+        this.order = EvictionOrder.of(policy, capacity);
+        this.values = new Object[capacity];
+        this.table = new int[tableLength(capacity)];
+        this.mask = table.length - 1;
+        order.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all items in the cache and resets the hit rate.
+     */
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        Arrays.fill(values, 0, size, null);
+        order.clear();
+        size = 0;
+        totalHits = 0;
+        successfulHits = 0;
+    }
+
+    /**
+     * @return the proportion of get calls that returned a value found in the cache, or 0.0 if there were none.
+     */
+    public double getHitRate() {
+        return totalHits == 0 ? 0 : successfulHits / (double) totalHits;
+    }
+
+    /**
+     * @return unmodifiable collection of the values in the cache, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        return Collections.unmodifiableList((List<V>) Arrays.asList(values).subList(0, size));
+    }
+
+    /**
+     * @return the slot-independent hash of the key of the entry.
+     */
+    abstract int hashOf(int entry);
+
+    /**
+     * Counts a get call which found the given entry in the table.
+     *
+     * @param entry the index of the entry plus one, or {@link #EMPTY} if the key is not in the cache
+     * @return the value of the entry, or null on a miss
+     */
+    @SuppressWarnings("unchecked")
+    final V lookedUp(int entry) {
+        totalHits++;
+        if (entry == EMPTY) {
+            return null;
+        }
+
+        successfulHits++;
+        order.accessed(entry - 1);
+        return (V) values[entry - 1];
+    }
+
+    /**
+     * Frees an entry for a new item, evicting one if the cache is full. The caller stores the key in the
+     * returned entry and then passes it to {@link #added(int, Object)}.
+     *
+     * @return the index of the entry
+     */
+    final int allocate() {
+        if (size < capacity) {
+            return size++;
+        }
+
+        int entry = order.victim();
+        order.removed(entry);
+        removeFromTable(entry);
+        return entry;
+    }
+
+    /**
+     * Stores the value of an entry whose key is already set and makes it reachable through the table.
+     */
+    final void added(int entry, V value) {
+        values[entry] = value;
+
+        int slot = hashOf(entry) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+
+        order.added(entry);
+    }
+
+    /**
+     * Removes the entry from the table and shifts back the entries after it which would otherwise become
+     * unreachable, so no tombstones are needed.
+     */
+    private void removeFromTable(int entry) {
+        int slot = hashOf(entry) & mask;
+        while (table[slot] != entry + 1) {
+            slot = (slot + 1) & mask;
+        }
+
+        int gap = slot;
+        for (int current = (gap + 1) & mask; table[current] != EMPTY; current = (current + 1) & mask) {
+            int home = hashOf(table[current] - 1) & mask;
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                table[gap] = table[current];
+                gap = current;
+            }
+        }
+        table[gap] = EMPTY;
+    }
+
+    /**
+     * @return a power of two at least twice the capacity, so the table is at most half full.
+     */
+    private static int tableLength(int capacity) {
+        return Integer.highestOneBit(Math.max(1, capacity - 1)) << 2;
+    }
+}
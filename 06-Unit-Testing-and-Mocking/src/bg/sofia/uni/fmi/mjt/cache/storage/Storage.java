@@ -1,5 +1,9 @@
 package bg.sofia.uni.fmi.mjt.cache.storage;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface Storage<K, V> {
 
     /**
@@ -20,6 +24,26 @@ public interface Storage<K, V> {
      */
     V retrieve(K key);
 
+    /**
+     * Retrieves the values associated with all given keys at once. Storages for which every lookup
+     * is expensive (e.g. a remote one) should override it with a single batched lookup. The default
+     * implementation retrieves the keys one by one.
+     *
+     * @param keys
+     * @return the values associated with the given keys. Keys which do not exist are not present in the map.
+     */
+    default Map<K, V> retrieveAll(Collection<? extends K> keys) {
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = retrieve(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+
+        return values;
+    }
+
     /**
      * Removes the key-value association from the store.
      *
@@ -28,4 +52,28 @@ public interface Storage<K, V> {
      */
     V remove(K key);
 
+    /**
+     * Stores all given key-value associations at once. Storages for which every write is expensive
+     * should override it with a single batched write. The default implementation stores them one by one.
+     *
+     * @param values
+     */
+    default void storeAll(Map<? extends K, ? extends V> values) {
+        for (Map.Entry<? extends K, ? extends V> entry : values.entrySet()) {
+            store(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the associations of all given keys at once. Storages for which every write is expensive
+     * should override it with a single batched write. The default implementation removes them one by one.
+     *
+     * @param keys
+     */
+    default void removeAll(Collection<? extends K> keys) {
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
 }
@@ -0,0 +1,311 @@
+package bg.sofia.uni.fmi.mjt.cache.storage;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Storage decorator which buffers the writes and applies them to the underlying storage in batches,
+ * on a background thread. Repeated writes of the same key are merged, so only the last one reaches
+ * the underlying storage. A batch is flushed once {@code batchSize} keys are buffered, or once
+ * {@code flushInterval} has passed since the previous flush, whichever comes first.
+ * <p>
+ * Reads see the buffered writes. A write which fails to flush is buffered again and retried with the
+ * next batch, unless the key was written again meanwhile. Failed flushes are counted and the last
+ * failure is kept, so callers can tell that the writes are not being persisted. While the underlying
+ * storage keeps failing, writes of new keys are rejected once {@code maxBufferedCount} keys are buffered.
+ * {@link #close()} stops the background thread and flushes all buffered writes. The storage is
+ * thread-safe if the underlying one is.
+ * <p>
+ * Writes never read the underlying storage, so the previous value they return is only known while
+ * the key has a buffered write. Otherwise it is reported as null.
+ */
+public class WriteBehindStorage<K, V> implements Storage<K, V>, Closeable {
+    private static final int DEFAULT_MAX_BUFFERED_BATCHES = 16;
+
+    private final Storage<K, V> storage;
+    private final int batchSize;
+    private final int maxBufferedCount;
+
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private Map<K, Write<V>> buffered = new LinkedHashMap<>();
+    private Map<K, Write<V>> flushing = Map.of();
+    private boolean closed;
+
+    private final LongAdder failedFlushes = new LongAdder();
+    private volatile RuntimeException lastFlushFailure;
+
+    /**
+     * Creates a storage which buffers up to 16 batches.
+     *
+     * @param storage       the underlying storage
+     * @param batchSize     the number of buffered keys which triggers a flush
+     * @param flushInterval the maximum time a write stays buffered, unless the underlying storage fails
+     * @throws IllegalArgumentException if the storage or the flush interval is null, or the batch size
+     *                                  or the flush interval is not positive
+     */
+    public WriteBehindStorage(Storage<K, V> storage, int batchSize, Duration flushInterval) {
+        this(storage, batchSize, flushInterval, (int) Math.min(Integer.MAX_VALUE,
+            (long) batchSize * DEFAULT_MAX_BUFFERED_BATCHES));
+    }
+
+    /**
+     * @param storage          the underlying storage
+     * @param batchSize        the number of buffered keys which triggers a flush
+     * @param flushInterval    the maximum time a write stays buffered, unless the underlying storage fails
+     * @param maxBufferedCount the number of buffered keys at which writes of other keys are rejected
+     * @throws IllegalArgumentException if the storage or the flush interval is null, the batch size or
+     *                                  the flush interval is not positive, or the maximum buffered count
+     *                                  is less than the batch size
+     */
+    public WriteBehindStorage(Storage<K, V> storage, int batchSize, Duration flushInterval, int maxBufferedCount) {
+        if (storage == null) {
+            throw new IllegalArgumentException("Storage cannot be null!");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be a positive number");
+        }
+        if (flushInterval == null) {
+            throw new IllegalArgumentException("Flush interval cannot be null!");
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        if (maxBufferedCount < batchSize) {
+            throw new IllegalArgumentException("Max buffered count cannot be less than the batch size");
+        }
+
+        this.storage = storage;
+        this.batchSize = batchSize;
+        this.maxBufferedCount = maxBufferedCount;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Buffers the write.
+     *
+     * @return the value of the buffered write of the key, or null if it has none
+     * @throws IllegalStateException if the storage is closed, or the buffer is full and the key has no
+     *                               buffered write
+     */
+    @Override
+    public V store(K key, V value) {
+        if (key == null || value == null) {
+            return null;
+        }
+
+        return buffer(key, new Write<>(value));
+    }
+
+    @Override
+    public V retrieve(K key) {
+        synchronized (this) {
+            Write<V> write = bufferedWrite(key);
+            if (write != null) {
+                return write.value();
+            }
+        }
+
+        return storage.retrieve(key);
+    }
+
+    @Override
+    public Map<K, V> retrieveAll(Collection<? extends K> keys) {
+        Map<K, V> values = new HashMap<>();
+        List<K> notBuffered = new ArrayList<>();
+        synchronized (this) {
+            for (K key : keys) {
+                Write<V> write = bufferedWrite(key);
+                if (write == null) {
+                    notBuffered.add(key);
+                } else if (write.value() != null) {
+                    values.put(key, write.value());
+                }
+            }
+        }
+
+        if (!notBuffered.isEmpty()) {
+            values.putAll(storage.retrieveAll(notBuffered));
+        }
+
+        return values;
+    }
+
+    /**
+     * Buffers the removal.
+     *
+     * @return the value of the buffered write of the key, or null if it has none
+     * @throws IllegalStateException if the storage is closed, or the buffer is full and the key has no
+     *                               buffered write
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+
+        return buffer(key, new Write<>(null));
+    }
+
+    /**
+     * Applies all buffered writes to the underlying storage in the calling thread.
+     *
+     * @throws RuntimeException thrown by the underlying storage. The failed writes stay buffered and the
+     *                          failure is counted
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<K, Write<V>> batch;
+            synchronized (this) {
+                flushRequested.set(false);
+                if (buffered.isEmpty()) {
+                    return;
+                }
+                batch = buffered;
+                flushing = batch;
+                buffered = new LinkedHashMap<>();
+            }
+
+            try {
+                write(batch);
+                lastFlushFailure = null;
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    batch.forEach(buffered::putIfAbsent);
+                }
+                failedFlushes.increment();
+                lastFlushFailure = e;
+                throw e;
+            } finally {
+                synchronized (this) {
+                    flushing = Map.of();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys whose writes are not yet applied to the underlying storage.
+     */
+    public synchronized int getBufferedCount() {
+        return buffered.size() + flushing.size();
+    }
+
+    /**
+     * @return the number of flushes, background or explicit, which failed because of the underlying storage.
+     */
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * @return the exception of the last flush if it failed, or null if it succeeded or there was none.
+     */
+    public RuntimeException getLastFlushFailure() {
+        return lastFlushFailure;
+    }
+
+    /**
+     * Stops the background flushes and applies all buffered writes to the underlying storage. Writes are
+     * rejected from then on.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    private V buffer(K key, Write<V> write) {
+        Write<V> previous;
+        boolean full;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Storage is closed");
+            }
+            if (!buffered.containsKey(key) && getBufferedCount() >= maxBufferedCount) {
+                throw new IllegalStateException("Write buffer is full");
+            }
+            previous = bufferedWrite(key);
+            buffered.put(key, write);
+            full = buffered.size() >= batchSize;
+        }
+
+        if (full && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false); // Being closed, the buffered writes are flushed by close()
+            }
+        }
+
+        return previous != null ? previous.value() : null;
+    }
+
+    private Write<V> bufferedWrite(K key) {
+        Write<V> write = buffered.get(key);
+        return write != null ? write : flushing.get(key);
+    }
+
+    private void write(Map<K, Write<V>> batch) {
+        Map<K, V> stores = new LinkedHashMap<>();
+        List<K> removals = new ArrayList<>();
+        batch.forEach((key, write) -> {
+            if (write.value() != null) {
+                stores.put(key, write.value());
+            } else {
+                removals.add(key);
+            }
+        });
+
+        if (!stores.isEmpty()) {
+            storage.storeAll(stores);
+        }
+        if (!removals.isEmpty()) {
+            storage.removeAll(removals);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The writes stay buffered and are retried with the next flush
+        }
+    }
+
+    /**
+     * A buffered write. A null value stands for a removal.
+     */
+    private record Write<V>(V value) {
+    }
+}
@@ -0,0 +1,51 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    private static final int ITEMS = 10_000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<>(0, FALSE_POSITIVE_PROBABILITY));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<>(ITEMS, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<>(ITEMS, 1));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.of(List.of(), FALSE_POSITIVE_PROBABILITY));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<>(ITEMS, 0.5).add(null));
+    }
+
+    @Test
+    void testAddedItemsAreAlwaysContained() {
+        BloomFilter<String> filter = new BloomFilter<>(ITEMS, FALSE_POSITIVE_PROBABILITY);
+        for (int i = 0; i < ITEMS; i++) {
+            filter.add("item-" + i);
+        }
+
+        for (int i = 0; i < ITEMS; i++) {
+            assertTrue(filter.mightContain("item-" + i));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateIsCloseToTheExpectedOne() {
+        BloomFilter<Integer> filter = new BloomFilter<>(ITEMS, FALSE_POSITIVE_PROBABILITY);
+        for (int i = 0; i < ITEMS; i++) {
+            filter.add(i);
+        }
+
+        int falsePositives = 0;
+        for (int i = ITEMS; i < 11 * ITEMS; i++) {
+            if (filter.mightContain(i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2 * FALSE_POSITIVE_PROBABILITY * 10 * ITEMS,
+            "Too many false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,144 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheExpiryTest {
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int CAPACITY = 16;
+    private static final Duration TTL = Duration.ofSeconds(60);
+
+    private final MutableClock clock = new MutableClock();
+    private CacheOptions<Integer, Integer> options;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    @BeforeEach
+    void setUp() {
+        options = new CacheOptions<>(CAPACITY);
+        options.setClock(clock);
+        options.setRefreshExecutor(Runnable::run);
+    }
+
+    @Test
+    void testInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheOptions<>(0));
+        assertThrows(IllegalArgumentException.class, () -> options.setExpireAfterWrite(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> options.setExpireAfterAccess(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> options.setRefreshAheadTime(null));
+        assertThrows(IllegalArgumentException.class, () -> options.setClock(null));
+    }
+
+    @Test
+    void testExpireAfterWrite() throws Exception {
+        options.setExpireAfterWrite(TTL);
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        assertEquals(ZERO, cache.get(ZERO)); // From storage
+        clock.advance(TTL.minusSeconds(1));
+        assertEquals(ZERO, cache.get(ZERO)); // From cache, even though it was just accessed
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(ZERO, cache.get(ZERO)); // Expired, from storage again
+
+        verify(mockStorage, times(2)).retrieve(ZERO);
+        assertEquals(1.0 / 3.0, cache.getHitRate());
+    }
+
+    @Test
+    void testExpireAfterAccess() throws Exception {
+        options.setExpireAfterAccess(TTL);
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_FREQUENTLY_USED, options);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        cache.get(ZERO); // From storage
+        for (int i = 0; i < 5; i++) {
+            clock.advance(TTL.minusSeconds(1));
+            cache.get(ZERO); // From cache, access extends the lifetime
+        }
+        verify(mockStorage, times(1)).retrieve(ZERO);
+
+        clock.advance(TTL);
+        cache.get(ZERO); // Idle for too long, from storage again
+        verify(mockStorage, times(2)).retrieve(ZERO);
+    }
+
+    @Test
+    void testExpiredItemsAreRemovedWithoutBeingRead() throws Exception {
+        options.setExpireAfterWrite(TTL);
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.get(i);
+        }
+        assertEquals(CAPACITY, cache.size());
+
+        clock.advance(TTL.multipliedBy(2));
+        cache.get(CAPACITY);
+
+        assertEquals(1, cache.size());
+        assertIterableEquals(List.of(CAPACITY), cache.values());
+    }
+
+    @Test
+    void testRefreshAhead() throws Exception {
+        options.setExpireAfterWrite(TTL);
+        options.setRefreshAheadTime(Duration.ofSeconds(10));
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO, ONE);
+
+        assertEquals(ZERO, cache.get(ZERO)); // From storage
+        clock.advance(Duration.ofSeconds(55));
+        assertEquals(ZERO, cache.get(ZERO)); // From cache, triggers a refresh
+        verify(mockStorage, times(2)).retrieve(ZERO);
+
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(ONE, cache.get(ZERO)); // The refreshed value, the original one would have expired
+        verify(mockStorage, times(2)).retrieve(ZERO);
+        assertEquals(2.0 / 3.0, cache.getHitRate());
+    }
+
+    @Test
+    void testClearForgetsExpiry() throws Exception {
+        options.setExpireAfterWrite(TTL);
+        Cache<Integer, Integer> cache =
+            CacheFactory.getConcurrentInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        cache.get(ZERO);
+        cache.clear();
+        assertEquals(0, cache.size());
+
+        cache.get(ZERO);
+        clock.advance(TTL.minusSeconds(1));
+        cache.get(ZERO);
+
+        verify(mockStorage, times(2)).retrieve(ZERO);
+    }
+}
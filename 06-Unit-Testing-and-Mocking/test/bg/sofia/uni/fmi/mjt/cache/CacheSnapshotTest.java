@@ -0,0 +1,184 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheSnapshotTest {
+    private static final int CAPACITY = 4;
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    @Mock
+    private Storage<Integer, Object> mockObjectStorage;
+
+    @Test
+    void testRestoresLeastRecentlyUsedOrder() throws Exception {
+        Path snapshot = directory.resolve("lru.snapshot");
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+        cache.get(1);
+        cache.saveSnapshot(snapshot);
+
+        Cache<Integer, Integer> restored = CacheFactory.restoreInstance(mockStorage,
+            EvictionPolicy.LEAST_RECENTLY_USED, new CacheOptions<>(CAPACITY), snapshot);
+
+        assertIterableEquals(List.of(2, 3, 1), restored.values());
+        assertEquals(1, restored.get(1));
+        assertEquals(1.0, restored.getHitRate());
+    }
+
+    @Test
+    void testRestoresUsageCounts() throws Exception {
+        Path snapshot = directory.resolve("lfu.snapshot");
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_FREQUENTLY_USED);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 1; i <= CAPACITY; i++) {
+            for (int j = 0; j < i; j++) {
+                cache.get(i);
+            }
+        }
+        cache.saveSnapshot(snapshot);
+
+        Cache<Integer, Integer> restored = CacheFactory.restoreInstance(mockStorage,
+            EvictionPolicy.LEAST_FREQUENTLY_USED, new CacheOptions<>(CAPACITY), snapshot);
+        restored.get(CAPACITY + 1); // Evicts 1, the least frequently used one
+
+        assertEquals(Set.of(2, 3, 4, 5), Set.copyOf(restored.values()));
+    }
+
+    @Test
+    void testRestoresConcurrentCache() throws Exception {
+        Path snapshot = directory.resolve("striped.snapshot");
+        Cache<Integer, Integer> cache =
+            CacheFactory.getConcurrentInstance(mockStorage, 64, EvictionPolicy.WINDOW_TINY_LEAST_FREQUENTLY_USED);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < 32; i++) {
+            cache.get(i);
+        }
+        cache.saveSnapshot(snapshot);
+
+        Cache<Integer, Integer> restored = CacheFactory.restoreConcurrentInstance(mockStorage,
+            EvictionPolicy.WINDOW_TINY_LEAST_FREQUENTLY_USED, new CacheOptions<>(64), snapshot);
+
+        assertEquals(32, restored.size());
+        for (int i = 0; i < 32; i++) {
+            restored.get(i);
+        }
+        assertEquals(1.0, restored.getHitRate());
+    }
+
+    @Test
+    void testSkipsItemsExpiredSinceSnapshot() throws Exception {
+        Path snapshot = directory.resolve("expiring.snapshot");
+        CacheOptions<Integer, Integer> options = new CacheOptions<>(CAPACITY);
+        options.setExpireAfterWrite(Duration.ofDays(1));
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(1)).thenReturn(1);
+        cache.get(1);
+        cache.saveSnapshot(snapshot);
+
+        Cache<Integer, Integer> restored =
+            CacheFactory.restoreInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options, snapshot);
+        assertEquals(1, restored.size());
+
+        options.setExpireAfterWrite(Duration.ofMillis(1));
+        Thread.sleep(5);
+        Cache<Integer, Integer> expired =
+            CacheFactory.restoreInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options, snapshot);
+        assertEquals(0, expired.size());
+    }
+
+    @Test
+    void testSkipsItemsWhichAreNotSerializable() throws Exception {
+        Path snapshot = directory.resolve("objects.snapshot");
+        Cache<Integer, Object> cache =
+            CacheFactory.getInstance(mockObjectStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockObjectStorage.retrieve(1)).thenReturn("a");
+        when(mockObjectStorage.retrieve(2)).thenReturn(new Object());
+        when(mockObjectStorage.retrieve(3)).thenReturn("c");
+
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+        cache.saveSnapshot(snapshot);
+
+        Cache<Integer, Object> restored = CacheFactory.restoreInstance(mockObjectStorage,
+            EvictionPolicy.LEAST_RECENTLY_USED, new CacheOptions<>(CAPACITY), snapshot);
+
+        assertIterableEquals(List.of("a", "c"), restored.values());
+    }
+
+    @Test
+    void testMissingSnapshotGivesEmptyCache() throws Exception {
+        Cache<Integer, Integer> restored = CacheFactory.restoreInstance(mockStorage,
+            EvictionPolicy.LEAST_RECENTLY_USED, new CacheOptions<>(CAPACITY), directory.resolve("missing"));
+
+        assertEquals(0, restored.size());
+        verify(mockStorage, never()).retrieve(anyInt());
+    }
+
+    @Test
+    void testInvalidSnapshot() throws IOException {
+        Path snapshot = directory.resolve("invalid.snapshot");
+        Files.write(snapshot, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        assertThrows(IOException.class, () -> CacheFactory.restoreInstance(mockStorage,
+            EvictionPolicy.LEAST_RECENTLY_USED, new CacheOptions<>(CAPACITY), snapshot));
+    }
+
+    @Test
+    void testTruncatedSnapshot() throws Exception {
+        Path snapshot = directory.resolve("truncated.snapshot");
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieve(1)).thenReturn(1);
+        cache.get(1);
+        cache.saveSnapshot(snapshot);
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> CacheFactory.restoreInstance(mockStorage,
+            EvictionPolicy.LEAST_RECENTLY_USED, new CacheOptions<>(CAPACITY), snapshot));
+    }
+}
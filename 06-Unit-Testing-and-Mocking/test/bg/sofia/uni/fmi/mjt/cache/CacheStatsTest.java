@@ -0,0 +1,121 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatsTest {
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int CAPACITY = 2;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    @Test
+    void testInitialStats() {
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        assertEquals(CacheStats.EMPTY, cache.stats());
+        assertEquals(0, cache.stats().hitRate());
+        assertEquals(0, cache.stats().averageLoadPenalty());
+    }
+
+    @Test
+    void testStatsAreRecorded() throws Exception {
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockStorage.retrieve(-1)).thenReturn(null);
+
+        cache.get(ZERO);
+        cache.get(ZERO);
+        cache.get(ONE);
+        cache.get(2); // Evicts 0
+        assertThrows(ItemNotFound.class, () -> cache.get(-1));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(4, stats.missCount());
+        assertEquals(3, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertTrue(stats.totalLoadTime() > 0);
+        assertEquals(1, stats.evictionCount());
+        assertEquals(1, stats.evictionWeight());
+        assertEquals(0.2, stats.hitRate());
+        assertEquals(0.8, stats.missRate());
+    }
+
+    @Test
+    void testBulkLoadsAreRecorded() {
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieveAll(Set.of(ZERO, ONE))).thenReturn(Map.of(ZERO, ZERO));
+
+        cache.getAll(List.of(ZERO, ONE));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+    }
+
+    @Test
+    void testClearResetsOnlyTheHitRate() throws Exception {
+        Cache<Integer, Integer> cache =
+            CacheFactory.getConcurrentInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_FREQUENTLY_USED);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        cache.get(ZERO);
+        cache.get(ZERO);
+        cache.clear();
+
+        assertEquals(0, cache.getHitRate());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+
+        cache.get(ZERO);
+        assertEquals(0, cache.getHitRate());
+        assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    void testConcurrentCacheRecordsEvictions() throws Exception {
+        Cache<Integer, Integer> cache =
+            CacheFactory.getConcurrentInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED, 1);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(i);
+        }
+
+        assertEquals(8, cache.stats().evictionCount());
+    }
+
+    @Test
+    void testStatsDifference() {
+        CacheStats before = new CacheStats(1, 2, 3, 4, 5, 6, 7);
+        CacheStats after = new CacheStats(2, 4, 6, 8, 10, 12, 14);
+
+        assertEquals(before, after.minus(before));
+    }
+}
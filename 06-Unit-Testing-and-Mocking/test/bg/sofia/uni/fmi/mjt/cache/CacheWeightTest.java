@@ -0,0 +1,137 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWeightTest {
+    private static final int CAPACITY = 100;
+    private static final int MAXIMUM_WEIGHT = 10;
+
+    private CacheOptions<Integer, String> options;
+
+    @Mock
+    private Storage<Integer, String> mockStorage;
+
+    @BeforeEach
+    void setUp() {
+        options = new CacheOptions<>(CAPACITY);
+        options.setWeigher((key, value) -> value.length());
+        options.setMaximumWeight(MAXIMUM_WEIGHT);
+    }
+
+    @Test
+    void testInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> options.setMaximumWeight(0));
+        assertThrows(IllegalArgumentException.class, () -> options.setWeigher(null));
+    }
+
+    @Test
+    void testEvictsUntilNewItemFits() throws Exception {
+        Cache<Integer, String> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> "x".repeat(invocation.getArgument(0)));
+
+        cache.get(2);
+        cache.get(3);
+        cache.get(4);
+        assertEquals(3, cache.size());
+
+        cache.get(5); // Evicts 2 and 3
+        assertIterableEquals(List.of("xxxx", "xxxxx"), cache.values());
+
+        cache.get(1);
+        assertEquals(3, cache.size());
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.evictionCount());
+        assertEquals(5, stats.evictionWeight());
+    }
+
+    @Test
+    void testHeavierThanMaximumIsNotCached() throws Exception {
+        Cache<Integer, String> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_FREQUENTLY_USED, options);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> "x".repeat(invocation.getArgument(0)));
+
+        cache.get(1);
+        assertEquals("x".repeat(MAXIMUM_WEIGHT + 1), cache.get(MAXIMUM_WEIGHT + 1));
+
+        assertIterableEquals(List.of("x"), cache.values());
+    }
+
+    @Test
+    void testHeavierReplacementEvictsUntilItFits() throws Exception {
+        MutableClock clock = new MutableClock();
+        options.setExpireAfterWrite(Duration.ofMinutes(1));
+        options.setRefreshAheadTime(Duration.ofSeconds(30));
+        options.setRefreshExecutor(Runnable::run);
+        options.setClock(clock);
+        Cache<Integer, String> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> "x".repeat(invocation.getArgument(0)));
+        when(mockStorage.retrieve(1)).thenReturn("x", "x".repeat(7), "x".repeat(MAXIMUM_WEIGHT + 1));
+
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+
+        clock.advance(Duration.ofSeconds(40));
+        cache.get(1); // Refreshes 1 in the background
+        assertEquals("x".repeat(7), cache.get(1)); // Evicts 2
+        assertIterableEquals(List.of("xxx", "x".repeat(7)), cache.values());
+        assertEquals(1, cache.stats().evictionCount());
+
+        clock.advance(Duration.ofSeconds(30));
+        cache.get(1); // Expires 3 and refreshes 1 with a value heavier than the maximum weight
+        assertEquals("x".repeat(MAXIMUM_WEIGHT + 1), cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testNegativeWeight() {
+        options.setWeigher((key, value) -> -1);
+        Cache<Integer, String> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.WINDOW_TINY_LEAST_FREQUENTLY_USED, options);
+
+        when(mockStorage.retrieve(1)).thenReturn("x");
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(1));
+    }
+
+    @Test
+    void testConcurrentCacheSplitsMaximumWeight() throws Exception {
+        options.setMaximumWeight(MAXIMUM_WEIGHT * CacheFactory.DEFAULT_CONCURRENCY_LEVEL);
+        Cache<Integer, String> cache = CacheFactory.getConcurrentInstance(mockStorage,
+            EvictionPolicy.LEAST_RECENTLY_USED, new CacheOptions<>(CAPACITY));
+        Cache<Integer, String> weighted =
+            CacheFactory.getConcurrentInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(anyInt())).thenReturn("xxxxx");
+
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.get(i);
+            weighted.get(i);
+        }
+
+        assertEquals(CAPACITY, cache.size());
+        assertEquals(2 * CacheFactory.DEFAULT_CONCURRENCY_LEVEL, weighted.size()); // 2 items per segment
+        assertEquals(CAPACITY - weighted.size(), weighted.stats().evictionCount());
+    }
+}
@@ -0,0 +1,103 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultAsyncCacheTest {
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int CAPACITY = 16;
+
+    private ExecutorService executor;
+    private AsyncCache<Integer, Integer> cache;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        cache = CacheFactory.getAsyncInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED,
+            new CacheOptions<>(CAPACITY), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null));
+        assertThrows(IllegalArgumentException.class, () -> cache.getAll(null));
+        assertThrows(IllegalArgumentException.class, () -> new DefaultAsyncCache<>(null, executor));
+    }
+
+    @Test
+    void testMissIsLoadedAndHitIsCompletedImmediately() throws Exception {
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        assertEquals(ZERO, cache.get(ZERO).get());
+
+        CompletableFuture<Integer> hit = cache.get(ZERO);
+        assertTrue(hit.isDone());
+        assertEquals(ZERO, hit.get());
+        assertEquals(0.5, cache.synchronous().getHitRate());
+    }
+
+    @Test
+    void testItemNotFound() {
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> cache.get(ONE).get());
+
+        assertInstanceOf(ItemNotFound.class, exception.getCause());
+    }
+
+    @Test
+    void testMissDoesNotBlockCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockStorage.retrieve(ZERO)).thenAnswer(invocation -> {
+            release.await();
+            return ZERO;
+        });
+
+        CompletableFuture<Integer> first = cache.get(ZERO);
+        CompletableFuture<Integer> second = cache.get(ZERO);
+        assertFalse(first.isDone());
+
+        second.cancel(true); // Does not affect the other callers
+        release.countDown();
+
+        assertEquals(ZERO, first.get());
+        verify(mockStorage, times(1)).retrieve(ZERO);
+    }
+
+    @Test
+    void testGetAll() throws Exception {
+        when(mockStorage.retrieveAll(Set.of(ZERO, ONE))).thenReturn(Map.of(ZERO, ZERO));
+
+        assertEquals(Map.of(ZERO, ZERO), cache.getAll(List.of(ZERO, ONE)).get());
+    }
+}
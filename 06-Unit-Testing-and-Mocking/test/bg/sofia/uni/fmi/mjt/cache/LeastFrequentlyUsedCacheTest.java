@@ -165,4 +165,29 @@ class LeastFrequentlyUsedCacheTest {
         lfu.get(8);
         assertEquals(lfu.getHitRate(), 5.0 / 12.0);
     }
+
+    @Test
+    void testEvictsItemWithLowestUsageCount() throws Exception {
+        setUpLFU(3);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        lfu.get(1);
+        lfu.get(1);
+        lfu.get(1);
+        lfu.get(2);
+        lfu.get(2);
+        lfu.get(3);
+
+        lfu.get(4);
+        assertFalse(lfu.values().contains(3));
+        assertTrue(lfu.values().containsAll(List.of(1, 2, 4)));
+
+        lfu.get(4);
+        lfu.get(4);
+        lfu.get(5);
+        assertFalse(lfu.values().contains(2));
+        assertTrue(lfu.values().containsAll(List.of(1, 4, 5)));
+        assertEquals(3, lfu.size());
+    }
 }
\ No newline at end of file
@@ -9,10 +9,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -153,4 +158,32 @@ class LeastRecentlyUsedCacheTest {
 
         assertEquals(2.0/ 9.0, lru.getHitRate());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllNullKeys() {
+        setUpLRU(CAPACITY);
+
+        assertThrows(IllegalArgumentException.class, () -> lru.getAll(null));
+        assertThrows(IllegalArgumentException.class, () -> lru.getAll(Arrays.asList(ZERO, null)));
+    }
+
+    @Test
+    void testGetAllBatchesMisses() throws Exception {
+        setUpLRU(CAPACITY);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+        when(mockStorage.retrieveAll(Set.of(ONE, 2, 3))).thenReturn(Map.of(ONE, ONE, 3, 3));
+
+        lru.get(ZERO);
+        Map<Integer, Integer> values = lru.getAll(List.of(3, ZERO, 2, ONE, 3));
+
+        assertEquals(List.of(3, ZERO, ONE), List.copyOf(values.keySet()));
+        assertEquals(List.of(3, ZERO, ONE), List.copyOf(values.values()));
+        verify(mockStorage, never()).retrieve(ONE);
+        verify(mockStorage, never()).retrieve(3);
+
+        assertEquals(3, lru.size());
+        assertEquals(ONE, lru.get(ONE)); // Cached by the bulk lookup
+        assertEquals(2.0 / 6.0, lru.getHitRate());
+    }
+}
@@ -0,0 +1,150 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NegativeCachingTest {
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
+    private static final int CAPACITY = 16;
+    private static final int NEGATIVE_CAPACITY = 2;
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private final MutableClock clock = new MutableClock();
+    private CacheOptions<Integer, Integer> options;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    @BeforeEach
+    void setUp() {
+        options = new CacheOptions<>(CAPACITY);
+        options.setClock(clock);
+    }
+
+    @Test
+    void testInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> options.setNegativeCaching(0, TTL));
+        assertThrows(IllegalArgumentException.class, () -> options.setNegativeCaching(ONE, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> options.setNegativeCaching(ONE, null));
+        assertThrows(IllegalArgumentException.class, () -> options.setStorageKeyFilter(null));
+    }
+
+    @Test
+    void testMissingKeyIsNotReloadedWithinTimeToLive() {
+        options.setNegativeCaching(NEGATIVE_CAPACITY, TTL);
+        CacheBase<Integer, Integer> cache = new LeastRecentlyUsedCache<>(mockStorage, options);
+
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO)); // From storage
+        clock.advance(TTL.minusSeconds(1));
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO)); // Known to be missing
+        verify(mockStorage, times(1)).retrieve(ZERO);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO)); // Forgotten, from storage again
+        verify(mockStorage, times(2)).retrieve(ZERO);
+
+        assertEquals(1, cache.getRejectedLoadCount());
+        assertEquals(0.0, cache.getHitRate());
+    }
+
+    @Test
+    void testKeyAddedToStorageIsFoundAfterTimeToLive() throws ItemNotFound {
+        options.setNegativeCaching(NEGATIVE_CAPACITY, TTL);
+        Cache<Integer, Integer> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_FREQUENTLY_USED, options);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(null, ZERO);
+
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+        clock.advance(TTL);
+        assertEquals(ZERO, cache.get(ZERO));
+
+        verify(mockStorage, times(2)).retrieve(ZERO);
+    }
+
+    @Test
+    void testNegativeCacheForgetsTheOldestKeyWhenFull() {
+        options.setNegativeCaching(NEGATIVE_CAPACITY, TTL);
+        CacheBase<Integer, Integer> cache = new LeastRecentlyUsedCache<>(mockStorage, options);
+
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+        assertThrows(ItemNotFound.class, () -> cache.get(ONE));
+        assertThrows(ItemNotFound.class, () -> cache.get(TWO)); // Pushes ZERO out
+
+        assertThrows(ItemNotFound.class, () -> cache.get(TWO));
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+
+        verify(mockStorage, times(2)).retrieve(ZERO);
+        verify(mockStorage, times(1)).retrieve(TWO);
+        assertEquals(1, cache.getRejectedLoadCount());
+    }
+
+    @Test
+    void testGetAllSkipsKnownMissingKeys() {
+        options.setNegativeCaching(NEGATIVE_CAPACITY, TTL);
+        Cache<Integer, Integer> cache =
+            CacheFactory.getConcurrentInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieveAll(Set.of(ZERO, ONE))).thenReturn(Map.of(ONE, ONE));
+
+        assertEquals(Map.of(ONE, ONE), cache.getAll(List.of(ZERO, ONE)));
+        assertEquals(Map.of(ONE, ONE), cache.getAll(List.of(ZERO, ONE))); // ONE is cached, ZERO is known missing
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+
+        verify(mockStorage, times(1)).retrieveAll(any());
+        verify(mockStorage, never()).retrieve(ZERO);
+    }
+
+    @Test
+    void testClearForgetsMissingKeys() {
+        options.setNegativeCaching(NEGATIVE_CAPACITY, TTL);
+        Cache<Integer, Integer> cache =
+            CacheFactory.getConcurrentInstance(mockStorage, EvictionPolicy.WINDOW_TINY_LEAST_FREQUENTLY_USED, options);
+
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+        cache.clear();
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+
+        verify(mockStorage, times(2)).retrieve(ZERO);
+    }
+
+    @Test
+    void testStorageKeyFilterRejectsKeysWithoutLookup() throws ItemNotFound {
+        BloomFilter<Integer> filter = BloomFilter.of(List.of(ONE), 0.01);
+        assertFalse(filter.mightContain(ZERO));
+
+        options.setStorageKeyFilter(filter);
+        CacheBase<Integer, Integer> cache = new LeastRecentlyUsedCache<>(mockStorage, options);
+
+        when(mockStorage.retrieve(ONE)).thenReturn(ONE);
+
+        assertEquals(ONE, cache.get(ONE));
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+        assertEquals(Map.of(ONE, ONE), cache.getAll(List.of(ZERO, ONE, ZERO)));
+
+        verify(mockStorage, never()).retrieve(ZERO);
+        verify(mockStorage, never()).retrieveAll(any());
+        assertEquals(2, cache.getRejectedLoadCount());
+        assertEquals(3, cache.stats().missCount()); // getAll counts the repeated ZERO once
+    }
+}
@@ -0,0 +1,116 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OffHeapStoreTest {
+    private static final int BUDGET = 1 << 16;
+
+    @Mock
+    private Storage<Integer, String> mockStorage;
+
+    @Test
+    void testPutAndRemove() {
+        OffHeapStore<Integer, String> store = new OffHeapStore<>(BUDGET, key -> { });
+
+        assertTrue(store.put(1, "one"));
+        assertTrue(store.put(2, "two".repeat(100)));
+        assertEquals(2, store.size());
+
+        assertEquals("two".repeat(100), store.remove(2));
+        assertNull(store.remove(2));
+        assertTrue(store.discard(1));
+        assertFalse(store.discard(1));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testValuesWhichCannotBeStored() {
+        OffHeapStore<Integer, Object> store = new OffHeapStore<>(BUDGET, key -> { });
+
+        assertFalse(store.put(1, new Object()));
+        assertFalse(store.put(2, new byte[BUDGET]));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testDropsEldestWhenBudgetIsExhausted() {
+        List<Integer> dropped = new ArrayList<>();
+        OffHeapStore<Integer, String> store = new OffHeapStore<>(1024, dropped::add);
+
+        int stored = 0;
+        while (dropped.isEmpty()) {
+            assertTrue(store.put(stored++, "value"));
+        }
+
+        assertEquals(List.of(0), dropped);
+        assertEquals(stored - 1, store.size());
+        assertNull(store.remove(0));
+        assertEquals("value", store.remove(1));
+    }
+
+    @Test
+    void testEvictedItemsArePromotedBack() throws Exception {
+        CacheOptions<Integer, String> options = new CacheOptions<>(1);
+        options.setOffHeapBudgetBytes(BUDGET);
+        Cache<Integer, String> cache =
+            CacheFactory.getInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> "value" + invocation.getArgument(0));
+
+        assertEquals("value0", cache.get(0));
+        assertEquals("value1", cache.get(1)); // Demotes 0
+        assertEquals("value0", cache.get(0)); // Promotes 0, demotes 1
+        assertEquals("value1", cache.get(1));
+
+        verify(mockStorage, times(1)).retrieve(0);
+        verify(mockStorage, times(1)).retrieve(1);
+        assertEquals(1, cache.size());
+        assertEquals(0.5, cache.getHitRate());
+
+        cache.clear();
+        assertEquals("value0", cache.get(0));
+        verify(mockStorage, times(2)).retrieve(0);
+    }
+
+    @Test
+    void testConcurrentCachePromotesEvictedItems() throws Exception {
+        CacheOptions<Integer, String> options = new CacheOptions<>(2);
+        options.setOffHeapBudgetBytes(BUDGET);
+        Cache<Integer, String> cache =
+            CacheFactory.getConcurrentInstance(mockStorage, EvictionPolicy.LEAST_FREQUENTLY_USED, options);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> "value" + invocation.getArgument(0));
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("value" + i, cache.get(i));
+        }
+
+        verify(mockStorage, never()).retrieve(10);
+        verify(mockStorage, times(10)).retrieve(anyInt());
+    }
+
+    @Test
+    void testInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheOptions<>(1).setOffHeapBudgetBytes(0));
+    }
+}
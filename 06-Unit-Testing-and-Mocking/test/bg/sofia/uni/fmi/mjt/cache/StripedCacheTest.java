@@ -0,0 +1,166 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StripedCacheTest {
+    private static final int ZERO = 0;
+    private static final int CAPACITY = 64;
+    private static final int THREADS = 8;
+    private static final int GETS_PER_THREAD = 10_000;
+
+    private Cache<Integer, Integer> cache;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    void setUpCache(int capacity, EvictionPolicy policy) {
+        cache = CacheFactory.getConcurrentInstance(mockStorage, capacity, policy);
+    }
+
+    @Test
+    void testGetWithNullItem() {
+        setUpCache(CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null));
+    }
+
+    @Test
+    void testGetWithUnavailableItem() {
+        setUpCache(CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieve(anyInt())).thenReturn(null);
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+    }
+
+    @Test
+    void testInvalidConcurrencyLevel() {
+        assertThrows(IllegalArgumentException.class,
+            () -> CacheFactory.getConcurrentInstance(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED, 0));
+    }
+
+    @Test
+    void testGetFromCache() throws Exception {
+        setUpCache(CAPACITY, EvictionPolicy.LEAST_FREQUENTLY_USED);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        assertEquals(ZERO, cache.get(ZERO)); // From Primary storage
+        assertEquals(ZERO, cache.get(ZERO)); // From Cache
+        assertEquals(1, cache.size());
+        assertEquals(0.5, cache.getHitRate());
+        assertIterableEquals(List.of(ZERO), cache.values());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitRate());
+    }
+
+    @Test
+    void testValuesAreUnmodifiable() throws Exception {
+        setUpCache(CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+        cache.get(ZERO);
+
+        assertThrows(UnsupportedOperationException.class, () -> cache.values().clear());
+    }
+
+    @Test
+    void testCapacityIsNotExceeded() throws Exception {
+        setUpCache(CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < CAPACITY * 4; i++) {
+            assertEquals(i, cache.get(i));
+        }
+
+        assertTrue(cache.size() <= CAPACITY);
+        assertEquals(cache.size(), cache.values().size());
+    }
+
+    @Test
+    void testConcurrentGets() throws Exception {
+        setUpCache(CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < GETS_PER_THREAD; i++) {
+                    int key = i % (CAPACITY / 2);
+                    if (cache.get(key) != key) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+        assertTrue(cache.size() <= CAPACITY);
+        assertTrue(cache.getHitRate() > 0.9);
+    }
+
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        StripedCache<Integer, Integer> striped = new StripedCache<>(mockStorage, CAPACITY, THREADS,
+            segmentCapacity -> new LeastRecentlyUsedCache<>(mockStorage, segmentCapacity));
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockStorage.retrieve(ZERO)).thenAnswer(invocation -> {
+            release.await();
+            return ZERO;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> striped.get(ZERO)));
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (striped.getDeduplicatedLoadCount() < THREADS - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(ZERO, result.get());
+        }
+        executor.shutdown();
+
+        verify(mockStorage, times(1)).retrieve(ZERO);
+        assertEquals(THREADS - 1, striped.getDeduplicatedLoadCount());
+        assertEquals(1, striped.size());
+    }
+}
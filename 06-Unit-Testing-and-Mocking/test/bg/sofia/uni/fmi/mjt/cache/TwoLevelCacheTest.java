@@ -0,0 +1,190 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int CAPACITY = 16;
+    private static final int L1_CAPACITY = 4;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    private TwoLevelCache<Integer, Integer> newCache(CacheOptions<Integer, Integer> options) {
+        return CacheFactory.getTwoLevelInstance(mockStorage, EvictionPolicy.LEAST_RECENTLY_USED, options,
+            L1_CAPACITY);
+    }
+
+    @Test
+    void testInvalidL1Capacity() {
+        assertThrows(IllegalArgumentException.class, () -> CacheFactory.getTwoLevelInstance(mockStorage,
+            EvictionPolicy.LEAST_RECENTLY_USED, new CacheOptions<>(CAPACITY), 0));
+    }
+
+    @Test
+    void testHitsAreServedByL1() throws Exception {
+        TwoLevelCache<Integer, Integer> cache = newCache(new CacheOptions<>(CAPACITY));
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        cache.get(ZERO);
+        cache.get(ZERO);
+        cache.get(ZERO);
+
+        assertEquals(2, cache.l1Stats().hitCount());
+        assertEquals(1, cache.l1Stats().missCount());
+        assertEquals(0, cache.l2Stats().hitCount());
+        assertEquals(1, cache.l2Stats().missCount());
+        assertEquals(2.0 / 3.0, cache.getHitRate());
+        assertEquals(2, cache.stats().hitCount());
+    }
+
+    @Test
+    void testL1IsPerThread() throws Exception {
+        TwoLevelCache<Integer, Integer> cache = newCache(new CacheOptions<>(CAPACITY));
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        cache.get(ZERO);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> other = executor.submit(() -> cache.get(ZERO));
+            assertEquals(ZERO, other.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, cache.l2Stats().hitCount());
+        verify(mockStorage, times(1)).retrieve(ZERO);
+    }
+
+    @Test
+    void testL2EvictionInvalidatesL1() throws Exception {
+        TwoLevelCache<Integer, Integer> cache = newCache(new CacheOptions<>(1));
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        cache.get(ZERO);
+        cache.get(ONE); // Evicts 0 from L2, even though L1 still has room for it
+        cache.get(ZERO);
+
+        assertEquals(0, cache.l1Stats().hitCount());
+        verify(mockStorage, times(2)).retrieve(ZERO);
+    }
+
+    @Test
+    void testL2EvictionInvalidatesL1OfEveryCacheSharingIt() throws Exception {
+        StripedCache<Integer, Integer> l2 = new StripedCache<>(mockStorage, 1, 1,
+            capacity -> new LeastRecentlyUsedCache<>(mockStorage, capacity));
+        TwoLevelCache<Integer, Integer> first = new TwoLevelCache<>(l2, L1_CAPACITY);
+        TwoLevelCache<Integer, Integer> second = new TwoLevelCache<>(l2, L1_CAPACITY);
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        first.get(ZERO);
+        second.get(ONE); // Evicts 0 from L2
+        first.get(ZERO);
+
+        assertEquals(0, first.l1Stats().hitCount());
+        verify(mockStorage, times(2)).retrieve(ZERO);
+    }
+
+    @Test
+    void testClearInvalidatesL1() throws Exception {
+        TwoLevelCache<Integer, Integer> cache = newCache(new CacheOptions<>(CAPACITY));
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        cache.get(ZERO);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitRate());
+
+        cache.get(ZERO);
+        verify(mockStorage, times(2)).retrieve(ZERO);
+    }
+
+    @Test
+    void testExpiryInvalidatesL1() throws Exception {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.EPOCH);
+        CacheOptions<Integer, Integer> options = new CacheOptions<>(CAPACITY);
+        options.setExpireAfterWrite(Duration.ofMinutes(1));
+        options.setClock(new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        });
+        TwoLevelCache<Integer, Integer> cache = newCache(options);
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO, ONE);
+        when(mockStorage.retrieve(ONE)).thenReturn(ONE);
+
+        assertEquals(ZERO, cache.get(ZERO));
+
+        now.set(Instant.EPOCH.plus(Duration.ofMinutes(2)));
+        cache.get(ONE); // L2 removes the expired items
+
+        assertEquals(ONE, cache.get(ZERO));
+    }
+
+    @Test
+    void testL1HitsDoNotServeExpiredItems() throws Exception {
+        MutableClock clock = new MutableClock();
+        CacheOptions<Integer, Integer> options = new CacheOptions<>(CAPACITY);
+        options.setExpireAfterWrite(Duration.ofSeconds(10));
+        options.setClock(clock);
+        TwoLevelCache<Integer, Integer> cache = newCache(options);
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO, ONE);
+
+        assertEquals(ZERO, cache.get(ZERO));
+        assertEquals(ZERO, cache.get(ZERO));
+
+        clock.advance(Duration.ofMinutes(5)); // Nothing reaches L2 meanwhile, so it does not expire the item
+
+        assertEquals(ONE, cache.get(ZERO));
+        assertEquals(1, cache.l1Stats().hitCount());
+    }
+
+    @Test
+    void testGetAll() {
+        TwoLevelCache<Integer, Integer> cache = newCache(new CacheOptions<>(CAPACITY));
+        when(mockStorage.retrieveAll(Set.of(ZERO, ONE))).thenReturn(Map.of(ZERO, ZERO, ONE, ONE));
+
+        assertEquals(Map.of(ZERO, ZERO, ONE, ONE), cache.getAll(List.of(ZERO, ONE)));
+        assertEquals(Map.of(ONE, ONE, ZERO, ZERO), cache.getAll(List.of(ONE, ZERO)));
+
+        assertEquals(2, cache.l1Stats().hitCount());
+    }
+}
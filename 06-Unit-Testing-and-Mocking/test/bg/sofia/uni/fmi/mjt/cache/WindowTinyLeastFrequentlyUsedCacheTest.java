@@ -0,0 +1,114 @@
+package bg.sofia.uni.fmi.mjt.cache;
+
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WindowTinyLeastFrequentlyUsedCacheTest {
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int MIN_CAPACITY = 1;
+    private static final int CAPACITY = 100;
+
+    private Cache<Integer, Integer> tinyLfu;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    void setUpTinyLFU(int capacity) {
+        tinyLfu = CacheFactory.getInstance(mockStorage, capacity, EvictionPolicy.WINDOW_TINY_LEAST_FREQUENTLY_USED);
+    }
+
+    @Test
+    void testGetWithNullItem() {
+        setUpTinyLFU(CAPACITY);
+
+        assertThrows(IllegalArgumentException.class, () -> tinyLfu.get(null));
+    }
+
+    @Test
+    void testGetWithUnavailableItem() {
+        setUpTinyLFU(CAPACITY);
+
+        when(mockStorage.retrieve(anyInt())).thenReturn(null);
+        assertThrows(ItemNotFound.class, () -> tinyLfu.get(ZERO));
+    }
+
+    @Test
+    void testGetFromCache() throws Exception {
+        setUpTinyLFU(CAPACITY);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+
+        assertEquals(ZERO, tinyLfu.get(ZERO)); // From Primary storage
+        assertEquals(1, tinyLfu.size());
+        assertEquals(ZERO, tinyLfu.get(ZERO)); // From Cache
+        assertEquals(0.5, tinyLfu.getHitRate());
+        assertTrue(tinyLfu.values().contains(ZERO));
+
+        tinyLfu.clear();
+        assertTrue(tinyLfu.values().isEmpty());
+        assertEquals(0, tinyLfu.getHitRate());
+    }
+
+    @Test
+    void testEvictFromCacheWithMinCapacity() throws Exception {
+        setUpTinyLFU(MIN_CAPACITY);
+
+        when(mockStorage.retrieve(ZERO)).thenReturn(ZERO);
+        when(mockStorage.retrieve(ONE)).thenReturn(ONE);
+
+        assertEquals(ZERO, tinyLfu.get(ZERO));
+        assertEquals(ONE, tinyLfu.get(ONE));
+
+        assertEquals(1, tinyLfu.size());
+        assertIterableEquals(List.of(ONE), tinyLfu.values());
+    }
+
+    @Test
+    void testCapacityIsNotExceeded() throws Exception {
+        setUpTinyLFU(CAPACITY);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < CAPACITY * 10; i++) {
+            tinyLfu.get(i % (CAPACITY * 3));
+        }
+
+        assertEquals(CAPACITY, tinyLfu.size());
+        assertEquals(CAPACITY, tinyLfu.values().size());
+    }
+
+    @Test
+    void testFrequentItemsSurviveScan() throws Exception {
+        setUpTinyLFU(CAPACITY);
+
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        int hotKeys = CAPACITY / 2;
+        for (int round = 0; round < 10; round++) {
+            for (int key = 0; key < hotKeys; key++) {
+                tinyLfu.get(key);
+            }
+        }
+
+        for (int key = CAPACITY; key < CAPACITY * 20; key++) {
+            tinyLfu.get(key);
+        }
+
+        long survivors = tinyLfu.values().stream().filter(key -> key < hotKeys).count();
+        assertTrue(survivors >= hotKeys * 9 / 10, "Only " + survivors + " hot keys survived the scan");
+    }
+}
@@ -0,0 +1,109 @@
+package bg.sofia.uni.fmi.mjt.cache.primitive;
+
+import bg.sofia.uni.fmi.mjt.cache.Cache;
+import bg.sofia.uni.fmi.mjt.cache.exception.ItemNotFound;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IntKeyCacheTest {
+    private static final int ZERO = 0;
+    private static final int CAPACITY = 16;
+
+    @Mock
+    private Storage<Integer, Integer> mockStorage;
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new IntKeyCache<>(mockStorage, 0, EvictionPolicy.LEAST_RECENTLY_USED));
+        assertThrows(IllegalArgumentException.class,
+            () -> new IntKeyCache<>(mockStorage, CAPACITY, EvictionPolicy.WINDOW_TINY_LEAST_FREQUENTLY_USED));
+    }
+
+    @Test
+    void testItemNotFound() {
+        IntKeyCache<Integer> cache = new IntKeyCache<>(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+
+        assertThrows(ItemNotFound.class, () -> cache.get(ZERO));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitRate());
+    }
+
+    @Test
+    void testLRU() throws Exception {
+        IntKeyCache<Integer> cache = new IntKeyCache<>(mockStorage, 5, EvictionPolicy.LEAST_RECENTLY_USED);
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int key : List.of(1, 2, 3, 4, 5, 1, 7, 8, 4)) {
+            cache.get(key);
+        }
+
+        assertEquals(Set.of(5, 1, 7, 8, 4), Set.copyOf(cache.values()));
+        assertEquals(2.0 / 9.0, cache.getHitRate());
+    }
+
+    @Test
+    void testLFU() throws Exception {
+        IntKeyCache<Integer> cache = new IntKeyCache<>(mockStorage, 3, EvictionPolicy.LEAST_FREQUENTLY_USED);
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int key : List.of(1, 1, 2, 2, 3, 4, 4)) {
+            cache.get(key);
+        }
+
+        assertEquals(Set.of(1, 2, 4), Set.copyOf(cache.values()));
+    }
+
+    @Test
+    void testClear() throws Exception {
+        IntKeyCache<Integer> cache = new IntKeyCache<>(mockStorage, CAPACITY, EvictionPolicy.LEAST_FREQUENTLY_USED);
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < CAPACITY * 2; i++) {
+            cache.get(i);
+        }
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertTrue(cache.values().isEmpty());
+        assertEquals(0, cache.getHitRate());
+
+        cache.get(ZERO);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testMatchesBoxedCaches() throws Exception {
+        when(mockStorage.retrieve(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<EvictionPolicy> policies =
+            List.of(EvictionPolicy.LEAST_RECENTLY_USED, EvictionPolicy.LEAST_FREQUENTLY_USED);
+        for (EvictionPolicy policy : policies) {
+            IntKeyCache<Integer> cache = new IntKeyCache<>(mockStorage, CAPACITY, policy);
+            Cache<Integer, Integer> boxed = CacheFactory.getInstance(mockStorage, CAPACITY, policy);
+
+            Random random = new Random(42);
+            for (int i = 0; i < 10_000; i++) {
+                int key = random.nextInt(CAPACITY * 4) * 31; // Colliding hashes exercise the probing
+                assertEquals(boxed.get(key), cache.get(key));
+            }
+
+            assertEquals(boxed.getHitRate(), cache.getHitRate());
+            assertEquals(Set.copyOf(boxed.values()), Set.copyOf(cache.values()));
+        }
+    }
+}
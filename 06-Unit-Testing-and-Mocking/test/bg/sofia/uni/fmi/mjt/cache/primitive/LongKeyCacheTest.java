@@ -0,0 +1,65 @@
+package bg.sofia.uni.fmi.mjt.cache.primitive;
+
+import bg.sofia.uni.fmi.mjt.cache.Cache;
+import bg.sofia.uni.fmi.mjt.cache.factory.CacheFactory;
+import bg.sofia.uni.fmi.mjt.cache.factory.EvictionPolicy;
+import bg.sofia.uni.fmi.mjt.cache.storage.Storage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Covers the {@code long} keys only. The entry storage and eviction shared with {@link IntKeyCache}
+ * are covered by {@link IntKeyCacheTest}.
+ */
+@ExtendWith(MockitoExtension.class)
+class LongKeyCacheTest {
+    private static final int CAPACITY = 16;
+    private static final long HIGH_BIT = 1L << 32;
+
+    @Mock
+    private Storage<Long, Long> mockStorage;
+
+    @Test
+    void testKeysDifferingOnlyInTheHighBitsAreDistinct() throws Exception {
+        LongKeyCache<Long> cache = new LongKeyCache<>(mockStorage, CAPACITY, EvictionPolicy.LEAST_RECENTLY_USED);
+        when(mockStorage.retrieve(anyLong())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(1L, cache.get(1L));
+        assertEquals(HIGH_BIT + 1, cache.get(HIGH_BIT + 1));
+        assertEquals(1L, cache.get(1L));
+
+        assertEquals(2, cache.size());
+        assertEquals(1.0 / 3.0, cache.getHitRate());
+    }
+
+    @Test
+    void testMatchesBoxedCaches() throws Exception {
+        when(mockStorage.retrieve(anyLong())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<EvictionPolicy> policies =
+            List.of(EvictionPolicy.LEAST_RECENTLY_USED, EvictionPolicy.LEAST_FREQUENTLY_USED);
+        for (EvictionPolicy policy : policies) {
+            LongKeyCache<Long> cache = new LongKeyCache<>(mockStorage, CAPACITY, policy);
+            Cache<Long, Long> boxed = CacheFactory.getInstance(mockStorage, CAPACITY, policy);
+
+            Random random = new Random(42);
+            for (int i = 0; i < 10_000; i++) {
+                long key = random.nextInt(CAPACITY * 4) * HIGH_BIT; // Keys which are all zero in the low bits
+                assertEquals(boxed.get(key), cache.get(key));
+            }
+
+            assertEquals(boxed.getHitRate(), cache.getHitRate());
+            assertEquals(Set.copyOf(boxed.values()), Set.copyOf(cache.values()));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package bg.sofia.uni.fmi.mjt.cache.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindStorageTest {
+    private static final Duration NEVER = Duration.ofDays(1);
+
+    @Mock
+    private Storage<Integer, String> mockStorage;
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindStorage<>(null, 1, NEVER));
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindStorage<>(mockStorage, 0, NEVER));
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindStorage<>(mockStorage, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindStorage<>(mockStorage, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindStorage<>(mockStorage, 2, NEVER, 1));
+    }
+
+    @Test
+    void testWritesAreMergedAndFlushedInBatch() {
+        try (WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 100, NEVER)) {
+            assertNull(storage.store(1, "a"));
+            assertEquals("a", storage.store(1, "b"));
+            storage.store(2, "c");
+            assertEquals("c", storage.remove(2));
+            storage.remove(3);
+
+            verify(mockStorage, never()).storeAll(anyMap());
+            assertEquals(3, storage.getBufferedCount());
+
+            storage.flush();
+
+            verify(mockStorage).storeAll(Map.of(1, "b"));
+            verify(mockStorage).removeAll(List.of(2, 3));
+            verify(mockStorage, never()).store(any(), any());
+            assertEquals(0, storage.getBufferedCount());
+        }
+    }
+
+    @Test
+    void testWritesDoNotReadTheUnderlyingStorage() {
+        try (WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 100, NEVER)) {
+            assertNull(storage.store(1, "a"));
+            assertNull(storage.remove(2));
+
+            verify(mockStorage, never()).retrieve(any());
+        }
+    }
+
+    @Test
+    void testReadsSeeBufferedWrites() {
+        try (WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 100, NEVER)) {
+            storage.store(1, "a");
+            storage.remove(2);
+
+            when(mockStorage.retrieve(3)).thenReturn("stored");
+            when(mockStorage.retrieveAll(List.of(3))).thenReturn(Map.of(3, "stored"));
+
+            assertEquals("a", storage.retrieve(1));
+            assertNull(storage.retrieve(2));
+            assertEquals("stored", storage.retrieve(3));
+            assertEquals(Map.of(1, "a", 3, "stored"), storage.retrieveAll(List.of(1, 2, 3)));
+        }
+    }
+
+    @Test
+    void testFlushesWhenBatchIsFull() {
+        try (WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 2, NEVER)) {
+            storage.store(1, "a");
+            storage.store(2, "b");
+
+            verify(mockStorage, timeout(1_000)).storeAll(Map.of(1, "a", 2, "b"));
+        }
+    }
+
+    @Test
+    void testFlushesPeriodically() {
+        try (WriteBehindStorage<Integer, String> storage =
+                 new WriteBehindStorage<>(mockStorage, 100, Duration.ofMillis(10))) {
+            storage.store(1, "a");
+
+            verify(mockStorage, timeout(1_000)).storeAll(Map.of(1, "a"));
+        }
+    }
+
+    @Test
+    void testFailedWritesStayBuffered() {
+        WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 100, NEVER);
+        doThrow(new IllegalStateException()).doNothing().when(mockStorage).storeAll(anyMap());
+
+        storage.store(1, "a");
+        storage.store(2, "b");
+        assertThrows(IllegalStateException.class, storage::flush);
+        assertEquals("a", storage.retrieve(1));
+
+        storage.store(2, "c");
+        storage.close();
+
+        verify(mockStorage).storeAll(Map.of(1, "a", 2, "c"));
+        assertEquals(0, storage.getBufferedCount());
+    }
+
+    @Test
+    void testFailedFlushesAreReportedAndBoundTheBuffer() {
+        IllegalStateException failure = new IllegalStateException("Storage is down");
+        doThrow(failure).doThrow(failure).doNothing().when(mockStorage).storeAll(anyMap());
+
+        try (WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 2, NEVER, 2)) {
+            storage.store(1, "a");
+            storage.store(2, "b"); // Triggers a background flush, which fails
+            verify(mockStorage, timeout(1_000)).storeAll(anyMap());
+            assertThrows(IllegalStateException.class, storage::flush);
+
+            assertEquals(2, storage.getFailedFlushCount());
+            assertSame(failure, storage.getLastFlushFailure());
+            assertThrows(IllegalStateException.class, () -> storage.store(3, "c"));
+            assertEquals("a", storage.store(1, "x")); // Keys already buffered can still be written
+
+            storage.flush();
+
+            assertNull(storage.getLastFlushFailure());
+            assertNull(storage.store(3, "c"));
+        }
+        verify(mockStorage).storeAll(Map.of(1, "x", 2, "b"));
+    }
+
+    @Test
+    void testCloseFlushes() {
+        WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 100, NEVER);
+
+        storage.store(1, "a");
+        storage.close();
+
+        verify(mockStorage).storeAll(Map.of(1, "a"));
+    }
+
+    @Test
+    void testWritesAfterCloseAreRejected() {
+        WriteBehindStorage<Integer, String> storage = new WriteBehindStorage<>(mockStorage, 1, NEVER);
+        storage.close();
+
+        assertThrows(IllegalStateException.class, () -> storage.store(1, "a"));
+        assertThrows(IllegalStateException.class, () -> storage.remove(1));
+        assertEquals(0, storage.getBufferedCount());
+    }
+}
@@ -0,0 +1,128 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * JMH benchmark of parsing a whole log file: the {@link LogDecoder} behind {@link DefaultLogParser#streamLogs()}
+ * against reading the lines as strings and parsing them with {@code split}, {@code substring} and
+ * {@link LocalDateTime#parse(CharSequence)}, as the parser used to. Every invocation parses the file once.
+ * <p>
+ * Usage: {@code LogDecoderBenchmark [lines]}. Logs the given number of lines, 10 million by default, which
+ * make a file of about 1 GB, and prints the lines per second of both ways along with the speedup. A single
+ * way can also be run through the JMH command line, e.g. {@code LogDecoderBenchmark.decoder -p lines=30000000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LogDecoderBenchmark {
+    private static final String DEFAULT_LINES = "10000000";
+    private static final LocalDateTime START = LocalDateTime.of(2022, 12, 1, 10, 15);
+    private static final String[] MESSAGES = {
+        "Request served", "Connection to the storage was reset, retrying", "Cache miss", "User logged in"};
+
+    @Param(DEFAULT_LINES)
+    private int lines;
+
+    private Path directory;
+    private Path file;
+
+    @Setup
+    public void writeLogFile() throws IOException {
+        directory = Files.createTempDirectory("mjt-logs-benchmark");
+
+        LoggerOptions options = new LoggerOptions(LogDecoderBenchmark.class, directory.toString());
+        options.setMaxFileSizeBytes(Long.MAX_VALUE);
+        options.setMinLogLevel(Level.DEBUG);
+
+        Level[] levels = Level.values();
+        DefaultLogger logger = new DefaultLogger(options);
+        for (int i = 0; i < lines; i++) {
+            String message = MESSAGES[i % MESSAGES.length] + " #" + i;
+            logger.log(levels[i % levels.length], START.plusNanos(i * 1_234_567L), message);
+        }
+        logger.close();
+
+        file = logger.getCurrentFilePath();
+    }
+
+    @TearDown
+    public void deleteLogFile() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void decoder(Blackhole blackhole) {
+        try (Stream<Log> logs = new DefaultLogParser(file).streamLogs()) {
+            logs.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void splitAndParse(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = line.split("\\|");
+                Level level = Level.parseLevel(tokens[0].substring(1, tokens[0].length() - 1));
+                LocalDateTime timestamp = LocalDateTime.parse(tokens[1]);
+
+                blackhole.consume(new Log(level, timestamp, tokens[2], tokens[3]));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String lines = args.length > 0 ? args[0] : DEFAULT_LINES;
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+            .include(LogDecoderBenchmark.class.getSimpleName())
+            .param("lines", lines)
+            .build()).run();
+
+        double decoderMillis = 0;
+        double splitAndParseMillis = 0;
+        for (RunResult result : results) {
+            double millis = result.getPrimaryResult().getScore();
+            if (result.getParams().getBenchmark().endsWith(".decoder")) {
+                decoderMillis = millis;
+            } else {
+                splitAndParseMillis = millis;
+            }
+        }
+
+        double lineCount = Double.parseDouble(lines);
+        System.out.printf("%16s %16s%n", "benchmark", "lines/s");
+        System.out.printf("%16s %16.0f%n", "decoder", lineCount / decoderMillis * 1000);
+        System.out.printf("%16s %16.0f%n", "splitAndParse", lineCount / splitAndParseMillis * 1000);
+        System.out.printf("speedup: %.1fx%n", splitAndParseMillis / decoderMillis);
+    }
+}
@@ -0,0 +1,216 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands the logs over to a single writer thread through a {@link LogRingBuffer}. The writer drains the
+ * buffer in batches: it encodes as many logs as fit in its batch buffer and passes them to the sink
+ * with a single write. When the buffer is full, logs are dropped or wait according to the
+ * {@link OverflowPolicy} of the options. Logs which fail to be written, with an exception or an error, are
+ * counted as dropped as well. Should the writer thread still die, the appender closes itself, so that no
+ * producer keeps waiting for room and the logs are written synchronously by the caller instead.
+ */
+final class AsyncAppender implements Closeable {
+    private static final int BATCH_SIZE_BYTES = 64 * 1024;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Destination of the encoded logs.
+     */
+    @FunctionalInterface
+    interface Sink {
+        /**
+         * @param summary the time range and the levels of the lines
+         */
+        void write(ByteBuffer lines, LogSummary summary) throws IOException;
+    }
+
+    private final LogRingBuffer ring;
+    private final OverflowPolicy overflowPolicy;
+    private final Level overflowMinLevel;
+    private final byte[] packageName;
+    private final Sink sink;
+
+    private final LogEncoder encoder = new LogEncoder();
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_SIZE_BYTES);
+    private final LogSummary batchSummary = new LogSummary();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+
+    private volatile boolean closed;
+    private volatile boolean writerIdle;
+    private volatile long writtenCount;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param packageName the package name, already encoded in UTF-8
+     */
+    AsyncAppender(LoggerOptions options, byte[] packageName, Sink sink) {
+        this.ring = new LogRingBuffer(options.getAsyncBufferSize());
+        this.overflowPolicy = options.getOverflowPolicy();
+        this.overflowMinLevel = options.getOverflowMinLevel();
+        this.packageName = packageName;
+        this.sink = sink;
+
+        this.writer = new Thread(this::drain, "logger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Publishes the log for the writer thread, dropping it or waiting for room if the buffer is full.
+     *
+     * @return false if the appender is closed or its writer thread died and the log was not taken
+     */
+    boolean append(Level level, LocalDateTime timestamp, String message) {
+        if (closed) {
+            return false;
+        }
+
+        while (!ring.tryPublish(level, timestamp, message)) {
+            if (closed) {
+                return false;
+            }
+            if (shouldDrop(level)) {
+                dropped.increment();
+                return true;
+            }
+
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every log published before the call is written or dropped.
+     */
+    void flush() {
+        long published = ring.publishedCount();
+        while (writtenCount < published && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * @return the number of logs dropped because the buffer was full or writing them failed
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops the writer thread once it writes all logs published so far. Logs published concurrently with
+     * the call may be lost.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean shouldDrop(Level level) {
+        return switch (overflowPolicy) {
+            case BLOCK -> false;
+            case DROP -> true;
+            case DROP_BELOW_LEVEL -> level.getLevel() < overflowMinLevel.getLevel();
+        };
+    }
+
+    private void drain() {
+        try {
+            drainUntilClosed();
+        } finally {
+            closed = true;
+        }
+    }
+
+    private void drainUntilClosed() {
+        while (true) {
+            int count = encodeBatch();
+            if (count > 0) {
+                write(batch, batchSummary, count);
+                continue;
+            }
+            if (closed) {
+                return;
+            }
+
+            writerIdle = true;
+            if (ring.peek() == null && !closed) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            writerIdle = false;
+        }
+    }
+
+    /**
+     * Moves published logs from the ring into the batch buffer, until either runs out.
+     *
+     * @return the number of logs moved
+     */
+    private int encodeBatch() {
+        batch.clear();
+        batchSummary.clear();
+
+        int count = 0;
+        LogRingBuffer.Event event;
+        while ((event = ring.peek()) != null) {
+            ByteBuffer line = encoder.encode(event.level(), event.timestamp(), packageName, event.message());
+            if (line.remaining() > batch.remaining()) {
+                if (count > 0) {
+                    break; // Left in the ring for the next batch
+                }
+                // A log longer than the batch buffer is written on its own
+                LogSummary summary = new LogSummary();
+                summary.add(event.level(), event.timestamp(), line.remaining());
+                ring.release();
+                write(line, summary, 1);
+                continue;
+            }
+
+            batchSummary.add(event.level(), event.timestamp(), line.remaining());
+            batch.put(line);
+            ring.release();
+            count++;
+        }
+
+        batch.flip();
+        return count;
+    }
+
+    private void write(ByteBuffer lines, LogSummary summary, int count) {
+        try {
+            sink.write(lines, summary);
+        } catch (Throwable e) {
+            dropped.add(count);
+        }
+        writtenCount = ring.consumedCount();
+    }
+}
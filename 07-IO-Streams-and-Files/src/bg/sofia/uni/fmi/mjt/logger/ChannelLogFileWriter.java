@@ -0,0 +1,45 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the lines through a {@link FileChannel} opened in append mode. The size of the file is read once,
+ * when it is opened, and is then counted in memory.
+ */
+final class ChannelLogFileWriter implements LogFileWriter {
+    private final FileChannel channel;
+    private long size;
+
+    ChannelLogFileWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        try {
+            this.size = channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer lines) throws IOException {
+        while (lines.hasRemaining()) {
+            size += channel.write(lines);
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
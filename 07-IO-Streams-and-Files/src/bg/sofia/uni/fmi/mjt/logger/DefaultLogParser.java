@@ -1,15 +1,32 @@
 package bg.sofia.uni.fmi.mjt.logger;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parses a single log file. If the file has a sidecar {@link LogIndex}, written by a logger with
+ * {@link LoggerOptions#isIndexed()} set, the queries by level read only the lines with that level and the
+ * queries by time only the blocks of the file which may hold matching logs, along with the lines logged
+ * after the index was last written. The tail
+ * is read backwards from the end of the file.
+ * <p>
+ * Every query is answered by a {@link LogReader}, which parses the file chunk by chunk. The streams hand
+ * out the logs as they are parsed, while the lists collect them.
+ */
 public class DefaultLogParser implements LogParser {
+    private static final int READ_CHUNK_SIZE_BYTES = 64 * 1024;
+
     private final Path logsFilePath;
 
     public DefaultLogParser(Path logsFilePath) {
@@ -18,108 +35,189 @@ public class DefaultLogParser implements LogParser {
 
     @Override
     public List<Log> getLogs(Level level) {
-        CommonValidations.throwIfNull(level, "Level");
+        return collect(streamLogs(level));
+    }
 
-        List<Log> logsByLevel = new ArrayList<>();
+    @Override
+    public List<Log> getLogs(LocalDateTime from, LocalDateTime to) {
+        return collect(streamLogs(from, to));
+    }
 
-        try (BufferedReader reader = Files.newBufferedReader(logsFilePath)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] tokens = line.split("\\|");
+    @Override
+    public List<Log> getLogsTail(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("A non-negative number must be used as argument");
+        }
 
-                Log log = parseLog(tokens);
+        if (n == 0) {
+            return Collections.emptyList();
+        }
 
-                if (log.level() == level) {
-                    logsByLevel.add(log);
-                }
+        return collect(stream((channel, size) -> {
+            long start = tailStart(channel, size, n);
+            return List.of(new LogIndex.Range(start, size - start));
+        }));
+    }
 
-            }
+    @Override
+    public Stream<Log> streamLogs() {
+        return stream((channel, size) -> List.of(new LogIndex.Range(0, size)));
+    }
 
-        } catch (IOException e) {
-            return Collections.emptyList();
-        }
+    @Override
+    public Stream<Log> streamLogs(Level level) {
+        CommonValidations.throwIfNull(level, "Level");
 
-        return logsByLevel;
+        return stream((channel, size) -> rangesToRead(size, index -> index.ranges(level)))
+            .filter(log -> log.level() == level);
     }
 
     @Override
-    public List<Log> getLogs(LocalDateTime from, LocalDateTime to) {
+    public Stream<Log> streamLogs(LocalDateTime from, LocalDateTime to) {
         CommonValidations.throwIfNull(from, "From");
         CommonValidations.throwIfNull(to, "To");
 
-        List<Log> logsByDateRange = new ArrayList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(logsFilePath)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] tokens = line.split("\\|");
+        return stream((channel, size) -> rangesToRead(size, index -> index.ranges(from, to)))
+            .filter(log -> !log.timestamp().isBefore(from) && !log.timestamp().isAfter(to));
+    }
 
-                Log log = parseLog(tokens);
+    /**
+     * Selects the ranges of the log file to read, given the size of the file without its padding.
+     */
+    @FunctionalInterface
+    private interface RangeSelector {
+        List<LogIndex.Range> select(FileChannel channel, long size) throws IOException;
+    }
 
-                if (log.timestamp().isAfter(from) && log.timestamp().isBefore(to)) {
-                    logsByDateRange.add(log);
-                }
+    /**
+     * Selects the ranges of the indexed part of the log file to read.
+     */
+    @FunctionalInterface
+    private interface IndexQuery {
+        List<LogIndex.Range> select(LogIndex index) throws IOException;
+    }
 
-                if (log.timestamp().isEqual(from) || log.timestamp().isEqual(to)) {
-                    logsByDateRange.add(log);
-                }
-            }
+    /**
+     * Opens the file and streams the logs in the selected ranges. Closing the stream closes the file.
+     *
+     * @return the logs in the ranges, or an empty stream if the file cannot be opened
+     */
+    private Stream<Log> stream(RangeSelector selector) {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(logsFilePath);
+        } catch (IOException e) {
+            return Stream.empty();
+        }
 
+        List<LogIndex.Range> ranges;
+        try {
+            ranges = selector.select(channel, lengthWithoutPadding(channel, channel.size()));
         } catch (IOException e) {
-            return Collections.emptyList();
+            try {
+                channel.close();
+            } catch (IOException closeException) {
+                // The query fails either way
+            }
+            return Stream.empty();
         }
 
-        return logsByDateRange;
-    }
+        LogReader reader = new LogReader(channel, ranges);
+        Spliterator<Log> logs = Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL);
 
-    @Override
-    public List<Log> getLogsTail(int n) {
-        if (n < 0) {
-            throw new IllegalArgumentException("A non-negative number must be used as argument");
-        }
+        return StreamSupport.stream(logs, false).onClose(reader::close);
+    }
 
-        if (n == 0) {
+    /**
+     * @return the logs of the stream, or an empty list if reading the file fails
+     */
+    private static List<Log> collect(Stream<Log> logs) {
+        try (logs) {
+            return logs.toList();
+        } catch (UncheckedIOException e) {
             return Collections.emptyList();
         }
+    }
 
-        List<Log> logs = new ArrayList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(logsFilePath)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] tokens = line.split("\\|");
-
-                Log log = parseLog(tokens);
-
-                logs.add(log);
+    /**
+     * Finds where the zeros padding the file after the last line start. A memory mapped writer pads the file
+     * up to the end of its mapped region while it is open, and leaves the padding if it is not closed.
+     *
+     * @return the size of the file without the padding
+     */
+    private static long lengthWithoutPadding(FileChannel channel, long size) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(READ_CHUNK_SIZE_BYTES, Math.max(1, size)));
+
+        long end = size;
+        while (end > 0) {
+            int length = (int) Math.min(chunk.capacity(), end);
+            long start = end - length;
+
+            chunk.clear().limit(length);
+            LogIndex.readFully(channel, chunk, start);
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk.get(i) != 0) {
+                    return start + i + 1;
+                }
             }
 
-        } catch (IOException e) {
-            return Collections.emptyList();
+            end = start;
         }
 
+        return 0;
+    }
 
-        if (logs.size() <= n) {
-            return logs;
+    /**
+     * Finds where the last {@code n} lines start by reading the file backwards in chunks and counting line
+     * breaks, so that only those lines are read and parsed.
+     *
+     * @return the offset of the first of the last {@code n} lines, or 0 if the file has fewer lines
+     */
+    private static long tailStart(FileChannel channel, long size, int n) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(READ_CHUNK_SIZE_BYTES, Math.max(1, size)));
+
+        // The last byte ends the last line, so a line break there does not start another one
+        long end = size - 1;
+        int lineBreaks = 0;
+        while (end > 0) {
+            int length = (int) Math.min(chunk.capacity(), end);
+            long start = end - length;
+
+            chunk.clear().limit(length);
+            LogIndex.readFully(channel, chunk, start);
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n' && ++lineBreaks == n) {
+                    return start + i + 1;
+                }
+            }
+
+            end = start;
         }
 
-        return logs.subList(logs.size() - n, logs.size());
+        return 0;
     }
 
-    private Log parseLog(String[] tokens) {
-        final int levelToken = 0;
-        final int timeToken = 1;
-        final int packageToken = 2;
-        final int messageToken = 3;
-
-        String levelString = tokens[levelToken].substring(1, tokens[levelToken].length() - 1);
-        Level level = Level.parseLevel(levelString);
+    private List<LogIndex.Range> rangesToRead(long fileSize, IndexQuery query) {
+        LogIndex index;
+        List<LogIndex.Range> indexedRanges;
+        try {
+            index = LogIndex.load(logsFilePath);
+            indexedRanges = index != null ? query.select(index) : null;
+        } catch (IOException e) {
+            index = null; // An unreadable index is no reason to fail the query
+            indexedRanges = null;
+        }
 
-        LocalDateTime timestamp = LocalDateTime.parse(tokens[timeToken]);
+        // An index longer than the file was not written for it
+        if (index == null || index.indexedEnd() > fileSize) {
+            return List.of(new LogIndex.Range(0, fileSize));
+        }
 
-        String packageName = tokens[packageToken];
-        String message = tokens[messageToken];
+        List<LogIndex.Range> ranges = new ArrayList<>(indexedRanges);
+        if (index.indexedEnd() < fileSize) {
+            ranges.add(new LogIndex.Range(index.indexedEnd(), fileSize - index.indexedEnd()));
+        }
 
-        return new Log(level, timestamp, packageName, message);
+        return ranges;
     }
 }
@@ -1,24 +1,61 @@
 package bg.sofia.uni.fmi.mjt.logger;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.util.List;
 
-public class DefaultLogger implements Logger {
+/**
+ * Logger which encodes every line into a per-thread buffer and appends it to the current log file,
+ * which is kept open across calls. The file is closed on rotation and by {@link #close()}, and is
+ * reopened by the next log. The lines are appended through a channel, or, if
+ * {@link LoggerOptions#isMemoryMapped()} is set, copied into a memory mapped region of the file.
+ * <p>
+ * The size of the current file is tracked in memory, so deciding whether to rotate it does not touch the
+ * file system. The id of the current file is recovered from the directory when the logger is created:
+ * logging continues in the existing logs-N.txt with the highest N, or in the next one if it is full.
+ * A directory is meant to be written by a single logger at a time.
+ * <p>
+ * If {@link LoggerOptions#isIndexed()} is set, a {@link LogIndexWriter} indexes the lines of the current
+ * file in sidecar files as they are written.
+ * <p>
+ * If {@link LoggerOptions#isAsync()} is set, the logs are handed over to a background thread through
+ * a bounded lock-free buffer, and the thread writes them in batches. Once the logger is closed, the
+ * background thread is stopped and later logs are written synchronously. A logger which is still open
+ * when the JVM exits is closed by a shutdown hook, so the logs left in the buffer are written as well.
+ */
+public class DefaultLogger implements Logger, Closeable {
     private static final String LEVEL_VAR_NAME = "Level";
     private static final String TIMESTAMP_VAR_NAME = "Timestamp";
     private static final String MESSAGE_VAR_NAME = "Message";
 
-    private static long logFileId = 0L;
+    private static final ThreadLocal<LogEncoder> ENCODERS = ThreadLocal.withInitial(LogEncoder::new);
 
     private final LoggerOptions options;
+    private final byte[] packageName;
+    private final AsyncAppender appender;
+    private final Thread shutdownHook;
+
+    private volatile long logFileId;
+    private LogFileWriter fileWriter;
+    private LogIndexWriter indexWriter;
 
     public DefaultLogger(LoggerOptions options) {
         this.options = options;
+        this.packageName = options.getClazz().getPackageName().getBytes(StandardCharsets.UTF_8);
+        this.logFileId = lastLogFileId();
+        this.appender = options.isAsync() ? new AsyncAppender(options, packageName, this::write) : null;
+
+        // The writer thread is a daemon, so without the hook the logs still buffered at exit would be lost
+        this.shutdownHook = appender != null ? new Thread(this::close, "logger-shutdown") : null;
+        if (shutdownHook != null) {
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
     }
 
     @Override
@@ -32,52 +69,155 @@ public class DefaultLogger implements Logger {
             return;
         }
 
-        setLogEnvironment();
+        if (appender != null && appender.append(level, timestamp, message)) {
+            return;
+        }
 
-        Log log = new Log(level, timestamp, options.getClazz().getPackageName(), message);
+        try {
+            write(ENCODERS.get().encode(level, timestamp, packageName, message), level, timestamp);
+        } catch (IOException e) {
+            Log log = new Log(level, timestamp, options.getClazz().getPackageName(), message);
+            throwLogExceptionIfAllowed("Failed to log " + log + " in " + getCurrentFilePath());
+        }
+    }
 
-        Path currentLogFile = this.getCurrentFilePath();
+    /**
+     * Waits until all logs are written to the file. Returns right away for a synchronous logger.
+     */
+    public void flush() {
+        if (appender != null) {
+            appender.flush();
+        }
+    }
 
-        try (Writer logWriter = Files.newBufferedWriter(
-                currentLogFile,
-                StandardCharsets.UTF_8,
-                StandardOpenOption.APPEND)) {
+    /**
+     * @return the number of logs an asynchronous logger dropped because its buffer was full, as allowed by
+     * {@link LoggerOptions#getOverflowPolicy()}, or because writing them failed. Always 0 for a synchronous one.
+     */
+    public long getDroppedCount() {
+        return appender != null ? appender.getDroppedCount() : 0;
+    }
 
-            logWriter.write(log.toString());
-            logWriter.flush();
+    /**
+     * Writes the pending logs of an asynchronous logger and closes the current log file.
+     * A later log opens it again.
+     *
+     * @throws LogException if LoggerOptions.shouldThrowErrors() is true and the file cannot be closed
+     */
+    @Override
+    public void close() {
+        if (appender != null) {
+            removeShutdownHook();
+            appender.close();
+        }
+
+        closeFileWriter();
+    }
+
+    private void removeShutdownHook() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down, and the hook is the one closing the logger
+        }
+    }
+
+    private synchronized void closeFileWriter() {
+        if (fileWriter == null) {
+            return;
+        }
+
+        LogFileWriter closedFileWriter = fileWriter;
+        LogIndexWriter closedIndexWriter = indexWriter;
+        fileWriter = null;
+        indexWriter = null;
 
+        try {
+            // The index first, so that the log file is closed even if closing the index fails
+            try {
+                if (closedIndexWriter != null) {
+                    closedIndexWriter.close();
+                }
+            } finally {
+                closedFileWriter.close();
+            }
         } catch (IOException e) {
-            throwLogExceptionIfAllowed("Failed to log " + log + " in " + currentLogFile);
+            throwLogExceptionIfAllowed("An error occurred while trying to close " + getCurrentFilePath());
         }
     }
 
-    private void setLogEnvironment() {
-        initLogDirIfNotExists();
+    private synchronized void write(ByteBuffer line, Level level, LocalDateTime timestamp) throws IOException {
+        LogFileWriter writer = currentFileWriter();
+        long offset = writer.size();
+        writer.write(line);
 
-        Path currentLogFile = this.getCurrentFilePath();
-        if (Files.exists(currentLogFile) && logLimitReached(currentLogFile)) {
-            ++logFileId;
+        if (indexWriter != null) {
+            indexWriter.add(offset, writer.size() - offset, level, timestamp);
         }
+    }
+
+    private synchronized void write(ByteBuffer lines, LogSummary summary) throws IOException {
+        LogFileWriter writer = currentFileWriter();
+        long offset = writer.size();
+        writer.write(lines);
 
-        initLogFileIfNotExists();
+        if (indexWriter != null) {
+            indexWriter.add(offset, writer.size() - offset, summary);
+        }
     }
 
     /**
-     * Checks if the limit size of the current log file is reached.
-     *
-     * @param logFilePath the current log file path.
-     * @return true if the limit size of the current log file is reached, false otherwise.
+     * @return the writer of the current log file, moving on to the next file if the limit size is reached.
+     * The index writer of the file is opened along with it
      */
-    private boolean logLimitReached(Path logFilePath) {
-        try {
-            long fileSize = Files.size(logFilePath);
+    private LogFileWriter currentFileWriter() throws IOException {
+        if (fileWriter != null && isFull(fileWriter)) {
+            closeFileWriter();
+            ++logFileId;
+        }
 
-            return fileSize >= options.getMaxFileSizeBytes();
+        while (fileWriter == null) {
+            initLogDirIfNotExists();
+            Path file = getCurrentFilePath();
+            fileWriter = options.isMemoryMapped()
+                ? new MappedLogFileWriter(file, options.getMappedRegionSizeBytes(), options.getMaxFileSizeBytes())
+                : new ChannelLogFileWriter(file);
 
-        } catch (IOException e) {
-            throwLogExceptionIfAllowed("An error occurred while trying to get " + logFilePath + "'s size");
+            // A file left full by an earlier run
+            if (isFull(fileWriter)) {
+                closeFileWriter();
+                ++logFileId;
+            }
+        }
+
+        if (options.isIndexed() && indexWriter == null) {
+            indexWriter = new LogIndexWriter(getCurrentFilePath(), fileWriter.size());
+        }
+
+        return fileWriter;
+    }
 
-            return true;
+    /**
+     * @return whether the file reached the limit size. An empty file is never full, so a freshly opened file
+     * always takes at least one line
+     */
+    private boolean isFull(LogFileWriter writer) {
+        return writer.size() > 0 && writer.size() >= options.getMaxFileSizeBytes();
+    }
+
+    /**
+     * @return the highest id of the log files in the directory, or 0 if there are none.
+     */
+    private long lastLogFileId() {
+        Path directory = Path.of(options.getDirectory());
+        try {
+            List<Path> files = LogSegments.list(directory);
+            return files.isEmpty() ? 0 : LogSegments.id(files.get(files.size() - 1));
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            throwLogExceptionIfAllowed("An error occurred while trying to list " + directory);
+            return 0;
         }
     }
 
@@ -105,20 +245,6 @@ public class DefaultLogger implements Logger {
         }
     }
 
-    /**
-     * Creates an empty logs-{@link DefaultLogger#logFileId}.txt file if it does not already exist.
-     */
-    private void initLogFileIfNotExists() {
-        Path currentFilePath = this.getCurrentFilePath();
-        if (!Files.exists(currentFilePath)) {
-            try {
-                Files.createFile(currentFilePath);
-            } catch (IOException e) {
-                throwLogExceptionIfAllowed("An error occurred while trying to create file: " + currentFilePath);
-            }
-        }
-    }
-
     @Override
     public LoggerOptions getOptions() {
         return options;
@@ -126,6 +252,6 @@ public class DefaultLogger implements Logger {
 
     @Override
     public Path getCurrentFilePath() {
-        return Path.of(options.getDirectory(), String.format("logs-%d.txt", logFileId));
+        return LogSegments.path(Path.of(options.getDirectory()), logFileId);
     }
 }
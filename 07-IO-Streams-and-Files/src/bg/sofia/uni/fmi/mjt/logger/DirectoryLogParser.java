@@ -0,0 +1,240 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Parses all log files a {@link DefaultLogger} rotated through in a directory, logs-0.txt, logs-1.txt and
+ * so on. Each file is parsed by a {@link DefaultLogParser}.
+ * <p>
+ * The queries by level and by time read the files in parallel, each sorting the logs of its file by
+ * timestamp, and then merge the sorted files, keeping the order in which logs with equal timestamps were
+ * written. Reading a file blocks on I/O, so the files are read on an executor of their own rather than on
+ * the common fork-join pool, where the blocked threads would hold up unrelated tasks. Unless one is given,
+ * the executor is a pool of daemon threads shared by all parsers. The index of a file, if it has one, lets
+ * the query skip the parts of the file, or the whole file, whose time range or levels cannot match.
+ * The tail is read from the last file backwards, only going as far back as needed. The streams read the
+ * files one after another, in the order they were written.
+ */
+public class DirectoryLogParser implements LogParser {
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "log-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final Path directory;
+    private final Executor executor;
+
+    public DirectoryLogParser(Path directory) {
+        this(directory, SHARED_EXECUTOR);
+    }
+
+    /**
+     * @param executor runs the reading of the files by the queries by level and by time
+     */
+    public DirectoryLogParser(Path directory, Executor executor) {
+        CommonValidations.throwIfNull(directory, "Directory");
+        CommonValidations.throwIfNull(executor, "Executor");
+
+        this.directory = directory;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<Log> getLogs(Level level) {
+        CommonValidations.throwIfNull(level, "Level");
+
+        return getLogsInTimestampOrder(parser -> parser.getLogs(level));
+    }
+
+    @Override
+    public List<Log> getLogs(LocalDateTime from, LocalDateTime to) {
+        CommonValidations.throwIfNull(from, "From");
+        CommonValidations.throwIfNull(to, "To");
+
+        return getLogsInTimestampOrder(parser -> parser.getLogs(from, to));
+    }
+
+    /**
+     * Extracts the last {@code n} lines of the log files, in the order they were written.
+     *
+     * @see LogParser#getLogsTail(int)
+     */
+    @Override
+    public List<Log> getLogsTail(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("A non-negative number must be used as argument");
+        }
+
+        List<Path> segments = segments();
+        List<List<Log>> tails = new ArrayList<>();
+        int remaining = n;
+        for (int i = segments.size() - 1; i >= 0 && remaining > 0; i--) {
+            List<Log> tail = new DefaultLogParser(segments.get(i)).getLogsTail(remaining);
+            tails.add(tail);
+            remaining -= tail.size();
+        }
+
+        List<Log> logs = new ArrayList<>(n - remaining);
+        for (int i = tails.size() - 1; i >= 0; i--) {
+            logs.addAll(tails.get(i));
+        }
+
+        return logs;
+    }
+
+    /**
+     * Lazily reads the logs of all log files, file by file, in the order they were written. Only one file
+     * is open at a time.
+     *
+     * @see LogParser#streamLogs()
+     */
+    @Override
+    public Stream<Log> streamLogs() {
+        return streamInWrittenOrder(LogParser::streamLogs);
+    }
+
+    /**
+     * Lazily reads the logs with log level {@code level} of all log files, in the order they were written.
+     *
+     * @see LogParser#streamLogs(Level)
+     */
+    @Override
+    public Stream<Log> streamLogs(Level level) {
+        CommonValidations.throwIfNull(level, "Level");
+
+        return streamInWrittenOrder(parser -> parser.streamLogs(level));
+    }
+
+    /**
+     * Lazily reads the logs from {@code from} to {@code to} of all log files, in the order they were written.
+     *
+     * @see LogParser#streamLogs(LocalDateTime, LocalDateTime)
+     */
+    @Override
+    public Stream<Log> streamLogs(LocalDateTime from, LocalDateTime to) {
+        CommonValidations.throwIfNull(from, "From");
+        CommonValidations.throwIfNull(to, "To");
+
+        return streamInWrittenOrder(parser -> parser.streamLogs(from, to));
+    }
+
+    private Stream<Log> streamInWrittenOrder(Function<LogParser, Stream<Log>> query) {
+        // Each file is opened once the stream reaches it, and closed once the stream moves past it
+        return segments().stream().flatMap(segment -> query.apply(new DefaultLogParser(segment)));
+    }
+
+    private List<Log> getLogsInTimestampOrder(Function<LogParser, List<Log>> query) {
+        List<CompletableFuture<List<Log>>> reads = segments().stream()
+            .map(segment -> CompletableFuture.supplyAsync(() -> sortedByTimestamp(
+                query.apply(new DefaultLogParser(segment))), executor))
+            .toList();
+
+        List<List<Log>> segmentLogs = new ArrayList<>(reads.size());
+        for (CompletableFuture<List<Log>> read : reads) {
+            try {
+                segmentLogs.add(read.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        return merge(segmentLogs);
+    }
+
+    private static List<Log> sortedByTimestamp(List<Log> logs) {
+        // The sort is stable and the logs of a file are mostly in order already
+        List<Log> sorted = new ArrayList<>(logs);
+        sorted.sort(Comparator.comparing(Log::timestamp));
+        return sorted;
+    }
+
+    /**
+     * Merges the logs of the files, each sorted by timestamp, taking the earliest head of the files each
+     * time. Of equal timestamps, the head of the file written first is taken first.
+     */
+    private static List<Log> merge(List<List<Log>> segmentLogs) {
+        PriorityQueue<SegmentCursor> heads = new PriorityQueue<>(Math.max(1, segmentLogs.size()),
+            Comparator.comparing(SegmentCursor::current, Comparator.comparing(Log::timestamp))
+                .thenComparingInt(SegmentCursor::segment));
+
+        int size = 0;
+        for (int segment = 0; segment < segmentLogs.size(); segment++) {
+            List<Log> logs = segmentLogs.get(segment);
+            if (!logs.isEmpty()) {
+                heads.add(new SegmentCursor(logs, segment));
+            }
+            size += logs.size();
+        }
+
+        List<Log> merged = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            SegmentCursor head = heads.poll();
+            merged.add(head.current());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * The position of a merge in the sorted logs of a file.
+     */
+    private static final class SegmentCursor {
+        private final List<Log> logs;
+        private final int segment;
+        private int position;
+
+        SegmentCursor(List<Log> logs, int segment) {
+            this.logs = logs;
+            this.segment = segment;
+        }
+
+        Log current() {
+            return logs.get(position);
+        }
+
+        int segment() {
+            return segment;
+        }
+
+        /**
+         * @return false if the logs of the file are used up
+         */
+        boolean advance() {
+            return ++position < logs.size();
+        }
+    }
+
+    /**
+     * @return the log files in the directory from the first written to the last, or an empty list if the
+     * directory cannot be listed
+     */
+    private List<Path> segments() {
+        try {
+            return LogSegments.list(directory);
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+}
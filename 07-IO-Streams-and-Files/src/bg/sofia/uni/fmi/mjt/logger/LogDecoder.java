@@ -0,0 +1,195 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Decodes a log line in the format of {@link Log#toString()} straight from the bytes of the file. It finds
+ * the separators with a single scan, tells the level by its bytes and reads the digits of the timestamp at
+ * their fixed offsets, so the only objects created per line are the log, its timestamp and its message.
+ * The package name of the last line is kept and reused while the lines come from the same package.
+ * <p>
+ * Timestamps other than those of four digit years, such as the ones {@link LocalDateTime#toString()}
+ * prints with a sign, are parsed by {@link LocalDateTime#parse(CharSequence)}. A decoder is not thread-safe.
+ */
+final class LogDecoder {
+    private static final byte SEPARATOR = '|';
+    private static final int NANOS_DIGITS = 9;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+        100_000_000, 1_000_000_000};
+
+    // Offsets in yyyy-MM-ddTHH:mm:ss.nnnnnnnnn
+    private static final int MONTH = 5;
+    private static final int DAY = 8;
+    private static final int HOUR = 11;
+    private static final int MINUTE = 14;
+    private static final int SECOND = 17;
+    private static final int FRACTION = 20;
+    private static final int LENGTH_WITHOUT_SECONDS = 16;
+    private static final int LENGTH_WITHOUT_FRACTION = 19;
+
+    private byte[] packageBytes = new byte[0];
+    private String packageName = "";
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Decodes the line between {@code start} and {@code end} of the buffer, without its line separator.
+     * The position and the limit of the buffer are not changed.
+     *
+     * @throws IllegalArgumentException   if the line is not a log
+     * @throws java.time.DateTimeException if the timestamp is not valid
+     */
+    Log decode(ByteBuffer buffer, int start, int end) {
+        int timeStart = indexOf(buffer, SEPARATOR, start, end) + 1;
+        int packageStart = timeStart > 0 ? indexOf(buffer, SEPARATOR, timeStart, end) + 1 : 0;
+        int messageStart = packageStart > 0 ? indexOf(buffer, SEPARATOR, packageStart, end) + 1 : 0;
+        if (messageStart == 0) {
+            throw new IllegalArgumentException("Invalid log line: " + string(buffer, start, end));
+        }
+
+        Level level = level(buffer, start, timeStart - 1);
+        LocalDateTime timestamp = timestamp(buffer, timeStart, packageStart - 1);
+        String packageName = packageName(buffer, packageStart, messageStart - 1);
+        String message = string(buffer, messageStart, end);
+
+        return new Log(level, timestamp, packageName, message);
+    }
+
+    private Level level(ByteBuffer buffer, int start, int end) {
+        if (end - start >= 2 && buffer.get(start) == '[' && buffer.get(end - 1) == ']') {
+            Level level = switch (buffer.get(start + 1)) {
+                case 'E' -> Level.ERROR;
+                case 'W' -> Level.WARN;
+                case 'I' -> Level.INFO;
+                case 'D' -> Level.DEBUG;
+                default -> null;
+            };
+
+            if (level != null && equalsAscii(buffer, start + 1, end - 1, level.name())) {
+                return level;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid level: " + string(buffer, start, end));
+    }
+
+    private LocalDateTime timestamp(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length < LENGTH_WITHOUT_SECONDS || !hasDateTimeSeparators(buffer, start)) {
+            return LocalDateTime.parse(string(buffer, start, end));
+        }
+
+        int year = digits(buffer, start, 4);
+        int month = digits(buffer, start + MONTH, 2);
+        int day = digits(buffer, start + DAY, 2);
+        int hour = digits(buffer, start + HOUR, 2);
+        int minute = digits(buffer, start + MINUTE, 2);
+        int second = 0;
+        int nano = 0;
+
+        if (length > LENGTH_WITHOUT_SECONDS) {
+            boolean hasSeconds = length >= LENGTH_WITHOUT_FRACTION && buffer.get(start + SECOND - 1) == ':';
+            second = hasSeconds ? digits(buffer, start + SECOND, 2) : -1;
+        }
+        if (length > LENGTH_WITHOUT_FRACTION) {
+            int fractionDigits = length - FRACTION;
+            boolean hasFraction = fractionDigits > 0 && fractionDigits <= NANOS_DIGITS
+                && buffer.get(start + FRACTION - 1) == '.';
+            int fraction = hasFraction ? digits(buffer, start + FRACTION, fractionDigits) : -1;
+            nano = fraction >= 0 ? fraction * POWERS_OF_TEN[NANOS_DIGITS - fractionDigits] : -1;
+        }
+
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return LocalDateTime.parse(string(buffer, start, end));
+        }
+
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    private static boolean hasDateTimeSeparators(ByteBuffer buffer, int start) {
+        return buffer.get(start + MONTH - 1) == '-' && buffer.get(start + DAY - 1) == '-'
+            && buffer.get(start + HOUR - 1) == 'T' && buffer.get(start + MINUTE - 1) == ':';
+    }
+
+    /**
+     * @return the value of the decimal digits, or -1 if any of them is not a digit
+     */
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    private String packageName(ByteBuffer buffer, int start, int end) {
+        if (!equalsBytes(buffer, start, end, packageBytes)) {
+            packageBytes = new byte[end - start];
+            buffer.get(start, packageBytes);
+            packageName = new String(packageBytes, StandardCharsets.UTF_8);
+        }
+
+        return packageName;
+    }
+
+    private String string(ByteBuffer buffer, int start, int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+
+        if (scratch.length < end - start) {
+            scratch = new byte[end - start];
+        }
+        buffer.get(start, scratch, 0, end - start);
+        return new String(scratch, 0, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean equalsAscii(ByteBuffer buffer, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer.get(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean equalsBytes(ByteBuffer buffer, int start, int end, byte[] value) {
+        if (end - start != value.length) {
+            return false;
+        }
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset();
+            return Arrays.equals(buffer.array(), offset + start, offset + end, value, 0, value.length);
+        }
+
+        for (int i = 0; i < value.length; i++) {
+            if (buffer.get(start + i) != value[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
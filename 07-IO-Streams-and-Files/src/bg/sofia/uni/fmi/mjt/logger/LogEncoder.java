@@ -0,0 +1,143 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Encodes a log line straight into a reusable direct buffer, in UTF-8 and in exactly the format of
+ * {@link Log#toString()}, without creating any intermediate objects. An encoder is not thread-safe and is
+ * meant to be kept per thread. Its buffer grows to fit the longest line encoded so far and is never shrunk.
+ */
+final class LogEncoder {
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    private static final int MAX_FOUR_DIGIT_YEAR = 9999;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    private static final int NANOS_PER_MICRO = 1_000;
+
+    private static final byte SEPARATOR = '|';
+    private static final byte REPLACEMENT = '?';
+    private static final byte[][] LEVELS = new byte[Level.values().length][];
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Upper bound of the length of everything but the package name and the message.
+     */
+    private static final int MAX_FIXED_LENGTH = 64;
+
+    static {
+        for (Level level : Level.values()) {
+            LEVELS[level.ordinal()] = ("[" + level + "]").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+
+    /**
+     * @param packageName the package name, already encoded in UTF-8
+     * @return the buffer holding the encoded line between its position and limit. It is valid until the
+     * next call of the method
+     */
+    ByteBuffer encode(Level level, LocalDateTime timestamp, byte[] packageName, String message) {
+        ensureCapacity(MAX_FIXED_LENGTH + packageName.length + MAX_BYTES_PER_CHAR * message.length());
+
+        buffer.clear();
+        buffer.put(LEVELS[level.ordinal()]);
+        buffer.put(SEPARATOR);
+        putTimestamp(timestamp);
+        buffer.put(SEPARATOR);
+        buffer.put(packageName);
+        buffer.put(SEPARATOR);
+        putUtf8(message);
+        buffer.put(LINE_SEPARATOR);
+
+        return buffer.flip();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(capacity - 1) << 1);
+        }
+    }
+
+    /**
+     * Writes the timestamp as {@link LocalDateTime#toString()} does, that is, the seconds only if they or the
+     * nanoseconds are not zero, and the fraction in groups of three digits, as few as needed.
+     */
+    private void putTimestamp(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        if (year >= 0 && year <= MAX_FOUR_DIGIT_YEAR) {
+            putDigits(year, 4);
+            buffer.put((byte) '-');
+            putDigits(timestamp.getMonthValue(), 2);
+            buffer.put((byte) '-');
+            putDigits(timestamp.getDayOfMonth(), 2);
+        } else {
+            // Years with a sign are rare enough to be encoded the slow way
+            buffer.put(timestamp.toLocalDate().toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        buffer.put((byte) 'T');
+        putDigits(timestamp.getHour(), 2);
+        buffer.put((byte) ':');
+        putDigits(timestamp.getMinute(), 2);
+
+        int second = timestamp.getSecond();
+        int nano = timestamp.getNano();
+        if (second == 0 && nano == 0) {
+            return;
+        }
+        buffer.put((byte) ':');
+        putDigits(second, 2);
+
+        if (nano == 0) {
+            return;
+        }
+        buffer.put((byte) '.');
+        if (nano % NANOS_PER_MILLI == 0) {
+            putDigits(nano / NANOS_PER_MILLI, 3);
+        } else if (nano % NANOS_PER_MICRO == 0) {
+            putDigits(nano / NANOS_PER_MICRO, 6);
+        } else {
+            putDigits(nano, 9);
+        }
+    }
+
+    private void putDigits(int value, int count) {
+        int end = buffer.position() + count;
+        for (int i = end - 1; i >= end - count; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Encodes the characters as {@link String#getBytes(java.nio.charset.Charset)} does, replacing
+     * unpaired surrogates with '?'.
+     */
+    private void putUtf8(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                buffer.put(REPLACEMENT);
+            }
+        }
+    }
+}
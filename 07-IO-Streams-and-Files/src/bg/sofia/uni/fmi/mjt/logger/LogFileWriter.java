@@ -0,0 +1,21 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Appends encoded log lines to a single log file, which stays open until the writer is closed.
+ */
+interface LogFileWriter extends Closeable {
+
+    /**
+     * Appends all remaining bytes of the buffer.
+     */
+    void write(ByteBuffer lines) throws IOException;
+
+    /**
+     * @return the number of bytes of log lines in the file, without touching the file system
+     */
+    long size();
+}
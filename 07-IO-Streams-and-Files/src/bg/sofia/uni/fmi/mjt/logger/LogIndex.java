@@ -0,0 +1,214 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The sidecar index of a log file, written by {@link LogIndexWriter} next to the file: the time entries
+ * as logs-N.txt.idx and the line offsets of every level as logs-N.txt.error.idx, logs-N.txt.warn.idx and
+ * so on.
+ * <p>
+ * The time entries split the log file into consecutive blocks of whole lines and store, for every block,
+ * its byte range and the range of its timestamps. A query by time reads only the blocks which may hold
+ * matching lines. The timestamps are given by the callers of the logger and need not grow from line to
+ * line, so the blocks are filtered one by one rather than binary searched.
+ * <p>
+ * The line offsets of a level are stored as runs: the byte ranges of consecutive lines with that level.
+ * A query by level reads only the runs of its level from the index, and only the lines of its level, or
+ * of an unknown level, from the log file.
+ * <p>
+ * The time entries start with {@link #MAGIC} followed by fixed size entries: the offset and the length of
+ * the block and its earliest and latest epoch second. A block may extend only up to the end of the lines
+ * written when it was indexed, so the lines after {@link #indexedEnd()} are not indexed yet. The runs of
+ * a level start with {@link #RUNS_MAGIC} followed by their offsets and lengths. The runs of a block are
+ * written before its time entry, so those past {@link #indexedEnd()} are ignored.
+ */
+final class LogIndex {
+    static final int MAGIC = 0x4d4a5432;
+    static final int RUNS_MAGIC = 0x4d4a4c32;
+    static final int HEADER_SIZE = Integer.BYTES;
+    static final int ENTRY_SIZE = 4 * Long.BYTES;
+    static final int RUN_SIZE = 2 * Long.BYTES;
+
+    private static final String SIDECAR_SUFFIX = ".idx";
+
+    private final Path logFile;
+    private final long[] offsets;
+    private final long[] lengths;
+    private final long[] minEpochSeconds;
+    private final long[] maxEpochSeconds;
+
+    private LogIndex(Path logFile, int size) {
+        this.logFile = logFile;
+        this.offsets = new long[size];
+        this.lengths = new long[size];
+        this.minEpochSeconds = new long[size];
+        this.maxEpochSeconds = new long[size];
+    }
+
+    /**
+     * @return the path of the time entries of the index of the given log file
+     */
+    static Path sidecarOf(Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * @return the path of the runs of the given level in the index of the given log file
+     */
+    static Path sidecarOf(Path logFile, Level level) {
+        return logFile.resolveSibling(
+            logFile.getFileName() + "." + level.name().toLowerCase(Locale.ROOT) + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Loads the time entries of the index. The runs of a level are read by the query for that level.
+     *
+     * @return the index of the given log file, or null if the file has no index
+     * @throws IOException if the index cannot be read
+     */
+    static LogIndex load(Path logFile) throws IOException {
+        ByteBuffer content = readSidecar(sidecarOf(logFile), MAGIC);
+        if (content == null) {
+            return null;
+        }
+
+        // A trailing entry cut short by a crash is ignored
+        LogIndex index = new LogIndex(logFile, content.remaining() / ENTRY_SIZE);
+        for (int i = 0; i < index.offsets.length; i++) {
+            index.offsets[i] = content.getLong();
+            index.lengths[i] = content.getLong();
+            index.minEpochSeconds[i] = content.getLong();
+            index.maxEpochSeconds[i] = content.getLong();
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the offset in the log file right after the last indexed line
+     */
+    long indexedEnd() {
+        int last = offsets.length - 1;
+        return last >= 0 ? offsets[last] + lengths[last] : 0;
+    }
+
+    /**
+     * @return the byte ranges of the indexed lines which may have the given level, in file order
+     * @throws IOException if the runs of the level cannot be read
+     */
+    List<Range> ranges(Level level) throws IOException {
+        ByteBuffer runs = readSidecar(sidecarOf(logFile, level), RUNS_MAGIC);
+        if (runs == null) {
+            // Without its runs any indexed line may have the level
+            return List.of(new Range(0, indexedEnd()));
+        }
+
+        long indexedEnd = indexedEnd();
+        List<Range> ranges = new ArrayList<>();
+        while (runs.remaining() >= RUN_SIZE) {
+            long offset = runs.getLong();
+            long length = runs.getLong();
+            if (offset + length > indexedEnd) {
+                break;
+            }
+            addRange(ranges, offset, length);
+        }
+
+        return ranges;
+    }
+
+    /**
+     * @return the byte ranges of the blocks which may hold lines with timestamps from {@code from} to
+     * {@code to} inclusive, in file order
+     */
+    List<Range> ranges(LocalDateTime from, LocalDateTime to) {
+        long fromEpochSecond = from.toEpochSecond(ZoneOffset.UTC) + (from.getNano() > 0 ? 1 : 0);
+        long toEpochSecond = to.toEpochSecond(ZoneOffset.UTC);
+
+        List<Range> ranges = new ArrayList<>();
+        for (int i = 0; i < offsets.length; i++) {
+            if (minEpochSeconds[i] <= toEpochSecond && maxEpochSeconds[i] >= fromEpochSecond) {
+                addRange(ranges, offsets[i], lengths[i]);
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Adds the byte range to the ranges, merging it with the last range if the two are adjacent.
+     */
+    private static void addRange(List<Range> ranges, long offset, long length) {
+        int last = ranges.size() - 1;
+        if (last >= 0 && ranges.get(last).end() == offset) {
+            Range merged = ranges.get(last);
+            ranges.set(last, new Range(merged.offset(), merged.length() + length));
+        } else {
+            ranges.add(new Range(offset, length));
+        }
+    }
+
+    /**
+     * @return the content of the sidecar after its header, or null if the sidecar is missing or was not
+     * written with the given magic number
+     */
+    private static ByteBuffer readSidecar(Path sidecar, int magic) throws IOException {
+        try (FileChannel channel = FileChannel.open(sidecar)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            ByteBuffer content = ByteBuffer.allocate((int) size);
+            readFully(channel, content, 0);
+            content.flip();
+
+            return content.getInt() == magic ? content : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the magic number at the start of the sidecar
+     */
+    static int readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+
+        return header.getInt(0);
+    }
+
+    /**
+     * Reads from the given position until the buffer is full.
+     *
+     * @throws EOFException if the channel ends first
+     */
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+    }
+
+    /**
+     * A byte range of a log file, made of whole lines.
+     */
+    record Range(long offset, long length) {
+        long end() {
+            return offset + length;
+        }
+    }
+}
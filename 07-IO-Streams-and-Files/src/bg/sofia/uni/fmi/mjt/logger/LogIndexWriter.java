@@ -0,0 +1,306 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Appends the entries of a {@link LogIndex} as lines are appended to its log file. The lines are gathered
+ * into a block until it reaches {@link #BLOCK_SIZE_BYTES}, and each block is written as a single time
+ * entry, preceded by the level runs of its lines. The last block is written by {@link #close()}; if it is
+ * lost, the lines in it are left unindexed.
+ * <p>
+ * An index left behind by an earlier writer is continued. Lines which it does not cover, for example
+ * because they were logged without an index, are indexed as a block which matches any query.
+ */
+final class LogIndexWriter implements Closeable {
+    private static final int BLOCK_SIZE_BYTES = 4 * 1024;
+    private static final int RUNS_BUFFER_SIZE = 256 * LogIndex.RUN_SIZE;
+    private static final Level[] LEVELS = Level.values();
+
+    private final FileChannel channel;
+    private final FileChannel[] runChannels = new FileChannel[LEVELS.length];
+    private final ByteBuffer[] runs = new ByteBuffer[LEVELS.length];
+    private final long[] runPositions = new long[LEVELS.length];
+    private final ByteBuffer entry = ByteBuffer.allocate(LogIndex.ENTRY_SIZE);
+    private final LogSummary block = new LogSummary();
+
+    private long position;
+    private long blockOffset;
+    private long blockLength;
+
+    /**
+     * @param logFile the log file to index
+     * @param logSize the number of bytes of lines already in the log file
+     */
+    LogIndexWriter(Path logFile, long logSize) throws IOException {
+        this.channel = open(LogIndex.sidecarOf(logFile));
+
+        try {
+            for (Level level : LEVELS) {
+                runChannels[level.ordinal()] = open(LogIndex.sidecarOf(logFile, level));
+                runs[level.ordinal()] = ByteBuffer.allocate(RUNS_BUFFER_SIZE);
+            }
+
+            this.blockOffset = recover(logSize);
+            moveTo(logSize);
+        } catch (IOException e) {
+            closeChannels();
+            throw e;
+        }
+    }
+
+    /**
+     * Indexes a single line.
+     *
+     * @param offset the offset of the line in the log file
+     * @param length the length of the line in bytes
+     */
+    void add(long offset, long length, Level level, LocalDateTime timestamp) throws IOException {
+        moveTo(offset);
+        block.add(level, timestamp, length);
+        extendBlock(length);
+    }
+
+    /**
+     * Indexes consecutive lines.
+     *
+     * @param offset  the offset of the first line in the log file
+     * @param length  the length of the lines in bytes
+     * @param summary the summary of the lines
+     */
+    void add(long offset, long length, LogSummary summary) throws IOException {
+        moveTo(offset);
+        block.add(summary);
+        extendBlock(length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlock();
+        } finally {
+            closeChannels();
+        }
+    }
+
+    /**
+     * Makes the current block end at the given offset of the log file. Lines skipped on the way, for
+     * example because writing them failed midway, are indexed as a block which matches any query.
+     */
+    private void moveTo(long offset) throws IOException {
+        long blockEnd = blockOffset + blockLength;
+        if (offset == blockEnd) {
+            return;
+        }
+
+        writeBlock();
+        if (offset > blockEnd) {
+            block.addUnknown(offset - blockEnd);
+            blockLength = offset - blockEnd;
+            writeBlock();
+        }
+        blockOffset = offset;
+    }
+
+    private void extendBlock(long length) throws IOException {
+        blockLength += length;
+        if (blockLength >= BLOCK_SIZE_BYTES) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Writes the level runs of the block and then its time entry. A reader takes the time entries as the
+     * extent of the index, so the runs of a block must be in place before the block is.
+     */
+    private void writeBlock() throws IOException {
+        if (blockLength == 0) {
+            return;
+        }
+
+        writeRuns();
+
+        entry.clear();
+        entry.putLong(blockOffset)
+            .putLong(blockLength)
+            .putLong(block.getMinEpochSecond())
+            .putLong(block.getMaxEpochSecond());
+        entry.flip();
+        while (entry.hasRemaining()) {
+            position += channel.write(entry, position);
+        }
+
+        blockOffset += blockLength;
+        blockLength = 0;
+        block.clear();
+    }
+
+    private void writeRuns() throws IOException {
+        long offset = blockOffset;
+        for (int run = 0; run < block.getRunCount(); run++) {
+            Level level = block.getRunLevel(run);
+            long length = block.getRunLength(run);
+
+            if (level != null) {
+                addRun(level.ordinal(), offset, length);
+            } else {
+                // Lines of unknown levels are read by the queries for every level
+                for (Level any : LEVELS) {
+                    addRun(any.ordinal(), offset, length);
+                }
+            }
+            offset += length;
+        }
+
+        for (Level level : LEVELS) {
+            flushRuns(level.ordinal());
+        }
+    }
+
+    /**
+     * Adds the run to the buffered runs of its level, merging it with the last one if the two are adjacent.
+     */
+    private void addRun(int level, long offset, long length) throws IOException {
+        ByteBuffer buffer = runs[level];
+
+        int last = buffer.position() - LogIndex.RUN_SIZE;
+        if (last >= 0 && buffer.getLong(last) + buffer.getLong(last + Long.BYTES) == offset) {
+            buffer.putLong(last + Long.BYTES, buffer.getLong(last + Long.BYTES) + length);
+            return;
+        }
+
+        if (!buffer.hasRemaining()) {
+            flushRuns(level);
+        }
+        buffer.putLong(offset).putLong(length);
+    }
+
+    private void flushRuns(int level) throws IOException {
+        ByteBuffer buffer = runs[level];
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            runPositions[level] += runChannels[level].write(buffer, runPositions[level]);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Drops whatever is invalid in the existing index: a trailing entry cut short, the runs written for
+     * a block which was lost, or the whole index if it does not belong to the log file.
+     *
+     * @return the offset in the log file right after the last indexed line
+     */
+    private long recover(long logSize) throws IOException {
+        long indexedEnd = recoverBlocks(logSize);
+        for (int level = 0; level < LEVELS.length && indexedEnd >= 0; level++) {
+            if (!recoverRuns(level, indexedEnd)) {
+                indexedEnd = -1;
+            }
+        }
+
+        if (indexedEnd >= 0) {
+            return indexedEnd;
+        }
+
+        position = reset(channel, LogIndex.MAGIC);
+        for (int level = 0; level < LEVELS.length; level++) {
+            runPositions[level] = reset(runChannels[level], LogIndex.RUNS_MAGIC);
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return the offset in the log file right after the last indexed line, or -1 if the time entries
+     * cannot be continued
+     */
+    private long recoverBlocks(long logSize) throws IOException {
+        long size = channel.size();
+        if (size < LogIndex.HEADER_SIZE || LogIndex.readHeader(channel) != LogIndex.MAGIC) {
+            return -1;
+        }
+
+        long entries = (size - LogIndex.HEADER_SIZE) / LogIndex.ENTRY_SIZE;
+        position = LogIndex.HEADER_SIZE + entries * LogIndex.ENTRY_SIZE;
+        channel.truncate(position);
+
+        long indexedEnd = entries > 0 ? endOf(channel, position - LogIndex.ENTRY_SIZE) : 0;
+        return indexedEnd <= logSize ? indexedEnd : -1;
+    }
+
+    /**
+     * @return false if the runs of the level cannot be continued
+     */
+    private boolean recoverRuns(int level, long indexedEnd) throws IOException {
+        FileChannel runChannel = runChannels[level];
+        long size = runChannel.size();
+        if (size < LogIndex.HEADER_SIZE || LogIndex.readHeader(runChannel) != LogIndex.RUNS_MAGIC) {
+            return false;
+        }
+
+        // Runs past the last time entry belong to a block which was lost
+        long end = LogIndex.HEADER_SIZE + (size - LogIndex.HEADER_SIZE) / LogIndex.RUN_SIZE * LogIndex.RUN_SIZE;
+        while (end > LogIndex.HEADER_SIZE && endOf(runChannel, end - LogIndex.RUN_SIZE) > indexedEnd) {
+            end -= LogIndex.RUN_SIZE;
+        }
+
+        runChannel.truncate(end);
+        runPositions[level] = end;
+        return true;
+    }
+
+    /**
+     * Empties the file and writes its header.
+     *
+     * @return the position right after the header
+     */
+    private static long reset(FileChannel channel, int magic) throws IOException {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LogIndex.HEADER_SIZE).putInt(magic).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+
+        return LogIndex.HEADER_SIZE;
+    }
+
+    /**
+     * @return the end of the byte range stored at the given position, as an offset and a length
+     */
+    private static long endOf(FileChannel channel, long position) throws IOException {
+        ByteBuffer range = ByteBuffer.allocate(2 * Long.BYTES);
+        LogIndex.readFully(channel, range, position);
+
+        return range.getLong(0) + range.getLong(Long.BYTES);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Closes every channel opened so far, even if closing some of them fails.
+     */
+    private void closeChannels() throws IOException {
+        IOException failure = null;
+        for (FileChannel runChannel : runChannels) {
+            try {
+                if (runChannel != null) {
+                    runChannel.close();
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
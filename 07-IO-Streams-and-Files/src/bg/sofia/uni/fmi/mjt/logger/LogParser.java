@@ -2,6 +2,7 @@ package bg.sofia.uni.fmi.mjt.logger;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface LogParser {
 
@@ -33,4 +34,35 @@ public interface LogParser {
      * @throws IllegalArgumentException if {@code n} is a negative number
      */
     List<Log> getLogsTail(int n);
-}
\ No newline at end of file
+
+    /**
+     * Lazily reads all logs from the current log file, in the order they were written. The logs are parsed
+     * as the stream is consumed, so the stream can be limited or filtered in constant memory. The stream
+     * holds the file open until it is closed, so use it in a try-with-resources statement.
+     *
+     * @return stream of all logs, or an empty stream if the file cannot be opened
+     * @throws java.io.UncheckedIOException from the stream operations if reading the file fails
+     */
+    Stream<Log> streamLogs();
+
+    /**
+     * Lazily reads the logs with log level {@code level} from the current log file,
+     * as {@link #streamLogs()} does
+     *
+     * @param level log level
+     * @return stream of logs with the provided log level
+     * @throws IllegalArgumentException if {@code level} is null
+     */
+    Stream<Log> streamLogs(Level level);
+
+    /**
+     * Lazily reads the logs from {@code from} to {@code to} from the current log file,
+     * as {@link #streamLogs()} does
+     *
+     * @param from timestamp from
+     * @param to   timestamp to
+     * @return stream of logs from {@code from} to {@code to}
+     * @throws IllegalArgumentException if {@code from} or {@code to} is null
+     */
+    Stream<Log> streamLogs(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,146 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily reads the logs in the given ranges of a log file, one chunk of the file at a time, so only the
+ * lines of the current chunk are held in memory. The lines are decoded from the bytes of the chunk by a
+ * {@link LogDecoder}. Closing the reader closes the file.
+ */
+final class LogReader implements Iterator<Log>, Closeable {
+    private static final int CHUNK_SIZE_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final Iterator<LogIndex.Range> ranges;
+    private final LogDecoder decoder = new LogDecoder();
+
+    // Holds the bytes read from the file but not parsed yet, between its position and limit
+    private ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE_BYTES).flip();
+    private long position;
+    private long rangeEnd;
+    private Log next;
+
+    /**
+     * @param ranges ranges of whole lines, in the order to read them
+     */
+    LogReader(FileChannel channel, List<LogIndex.Range> ranges) {
+        this.channel = channel;
+        this.ranges = ranges.iterator();
+    }
+
+    /**
+     * @throws UncheckedIOException if reading the file fails
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return next != null;
+    }
+
+    /**
+     * @throws UncheckedIOException if reading the file fails
+     */
+    @Override
+    public Log next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Log log = next;
+        next = null;
+        return log;
+    }
+
+    /**
+     * @throws UncheckedIOException if closing the file fails
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Log readNext() throws IOException {
+        while (true) {
+            int lineBreak = indexOfLineBreak();
+            if (lineBreak >= 0) {
+                return parse(lineBreak, lineBreak + 1);
+            }
+            if (position < rangeEnd) {
+                fill();
+                continue;
+            }
+            if (chunk.hasRemaining()) {
+                return parse(chunk.limit(), chunk.limit()); // A last line without a line break
+            }
+            if (!ranges.hasNext()) {
+                return null;
+            }
+
+            LogIndex.Range range = ranges.next();
+            position = range.offset();
+            rangeEnd = range.end();
+        }
+    }
+
+    private int indexOfLineBreak() {
+        for (int i = chunk.position(); i < chunk.limit(); i++) {
+            if (chunk.get(i) == '\n') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Reads the next bytes of the current range after the bytes left in the chunk.
+     */
+    private void fill() throws IOException {
+        chunk.compact();
+        if (!chunk.hasRemaining()) {
+            // A line longer than the chunk
+            chunk = ByteBuffer.allocate(chunk.capacity() * 2).put(chunk.flip());
+        }
+
+        int toRead = (int) Math.min(chunk.remaining(), rangeEnd - position);
+        int read = channel.read(chunk.slice(chunk.position(), toRead), position);
+        if (read < 0) {
+            rangeEnd = position; // The file was truncated meanwhile
+        } else {
+            position += read;
+            chunk.position(chunk.position() + read);
+        }
+
+        chunk.flip();
+    }
+
+    /**
+     * Decodes the line from the position of the chunk to {@code lineEnd} and moves the position to
+     * {@code nextLineStart}.
+     */
+    private Log parse(int lineEnd, int nextLineStart) {
+        int start = chunk.position();
+        int end = lineEnd > start && chunk.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+        chunk.position(nextLineStart);
+
+        return decoder.decode(chunk, start, end);
+    }
+}
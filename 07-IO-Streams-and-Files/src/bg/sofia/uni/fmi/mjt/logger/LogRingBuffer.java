@@ -0,0 +1,126 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of logs with many producers and a single consumer. The slots are allocated
+ * upfront and reused, so publishing does not allocate. Every slot has a sequence number which tells
+ * whether it is free for the producer claiming the given position, or holds a log ready for the consumer.
+ */
+final class LogRingBuffer {
+    private final Event[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     */
+    LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        this.events = new Event[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publishes the log, unless the buffer is full. Safe to call from any thread.
+     *
+     * @return false if the buffer is full
+     */
+    boolean tryPublish(Level level, LocalDateTime timestamp, String message) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    Event event = events[index];
+                    event.level = level;
+                    event.timestamp = timestamp;
+                    event.message = message;
+                    sequences.lazySet(index, position + 1);
+
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return false;
+            } else {
+                position = tail.get(); // Another producer claimed the position meanwhile
+            }
+        }
+    }
+
+    /**
+     * @return the oldest published log or null if there is none. It stays in the buffer until
+     * {@link #release()} is called. Meant to be called by the consumer only
+     */
+    Event peek() {
+        long position = head;
+        int index = (int) position & mask;
+
+        return sequences.get(index) == position + 1 ? events[index] : null;
+    }
+
+    /**
+     * Frees the slot of the log returned by {@link #peek()}. Meant to be called by the consumer only.
+     */
+    void release() {
+        long position = head;
+        int index = (int) position & mask;
+
+        events[index].clear();
+        sequences.lazySet(index, position + events.length);
+        head = position + 1;
+    }
+
+    /**
+     * @return the number of logs published so far, including the ones still being published
+     */
+    long publishedCount() {
+        return tail.get();
+    }
+
+    /**
+     * @return the number of logs released by the consumer so far
+     */
+    long consumedCount() {
+        return head;
+    }
+
+    /**
+     * A log in a slot of the buffer.
+     */
+    static final class Event {
+        private Level level;
+        private LocalDateTime timestamp;
+        private String message;
+
+        Level level() {
+            return level;
+        }
+
+        LocalDateTime timestamp() {
+            return timestamp;
+        }
+
+        String message() {
+            return message;
+        }
+
+        private void clear() {
+            timestamp = null;
+            message = null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Names the log files of a directory. The logger writes logs-0.txt first and moves on to logs-1.txt,
+ * logs-2.txt and so on as each file fills up, so the ids give the order in which the files were written.
+ */
+final class LogSegments {
+    private static final String PREFIX = "logs-";
+    private static final String SUFFIX = ".txt";
+
+    private LogSegments() {
+    }
+
+    static Path path(Path directory, long id) {
+        return directory.resolve(PREFIX + id + SUFFIX);
+    }
+
+    /**
+     * @return the id of the log file, or -1 if the file is not a log file
+     */
+    static long id(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+
+        try {
+            long id = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            return id >= 0 ? id : -1;
+        } catch (NumberFormatException e) {
+            return -1; // Not a log file, just similarly named
+        }
+    }
+
+    /**
+     * @return the log files in the directory, from the first written to the last
+     * @throws java.nio.file.NoSuchFileException if the directory does not exist
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (id(file) >= 0) {
+                    segments.add(file);
+                }
+            }
+        }
+
+        segments.sort(Comparator.comparingLong(LogSegments::id));
+        return segments;
+    }
+}
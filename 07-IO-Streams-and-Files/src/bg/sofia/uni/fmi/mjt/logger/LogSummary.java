@@ -0,0 +1,105 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * The time range and the levels of a run of consecutive log lines. Timestamps are kept in whole epoch
+ * seconds, with the earliest rounded down and the latest rounded up, so the range always covers every line
+ * in the run. The levels are kept as level runs: the lengths in bytes of the consecutive lines which share
+ * a level, in the order the lines were written.
+ */
+final class LogSummary {
+    private static final int INITIAL_RUNS = 16;
+
+    private long minEpochSecond;
+    private long maxEpochSecond;
+
+    private Level[] runLevels = new Level[INITIAL_RUNS];
+    private long[] runLengths = new long[INITIAL_RUNS];
+    private int runCount;
+
+    LogSummary() {
+        clear();
+    }
+
+    /**
+     * Adds a line after the lines summarized so far.
+     *
+     * @param length the length of the line in bytes
+     */
+    void add(Level level, LocalDateTime timestamp, long length) {
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+
+        minEpochSecond = Math.min(minEpochSecond, epochSecond);
+        maxEpochSecond = Math.max(maxEpochSecond, timestamp.getNano() > 0 ? epochSecond + 1 : epochSecond);
+        addRun(level, length);
+    }
+
+    /**
+     * Adds the lines of the other summary after the lines summarized so far.
+     */
+    void add(LogSummary other) {
+        minEpochSecond = Math.min(minEpochSecond, other.minEpochSecond);
+        maxEpochSecond = Math.max(maxEpochSecond, other.maxEpochSecond);
+        for (int run = 0; run < other.runCount; run++) {
+            addRun(other.runLevels[run], other.runLengths[run]);
+        }
+    }
+
+    /**
+     * Adds lines whose contents are not known, widening the summary to match any timestamp and level.
+     *
+     * @param length the length of the lines in bytes
+     */
+    void addUnknown(long length) {
+        minEpochSecond = Long.MIN_VALUE;
+        maxEpochSecond = Long.MAX_VALUE;
+        addRun(null, length);
+    }
+
+    void clear() {
+        minEpochSecond = Long.MAX_VALUE;
+        maxEpochSecond = Long.MIN_VALUE;
+        runCount = 0;
+    }
+
+    long getMinEpochSecond() {
+        return minEpochSecond;
+    }
+
+    long getMaxEpochSecond() {
+        return maxEpochSecond;
+    }
+
+    int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * @return the level of the lines in the run, or null if the lines may have any level
+     */
+    Level getRunLevel(int run) {
+        return runLevels[run];
+    }
+
+    long getRunLength(int run) {
+        return runLengths[run];
+    }
+
+    private void addRun(Level level, long length) {
+        if (runCount > 0 && runLevels[runCount - 1] == level) {
+            runLengths[runCount - 1] += length;
+            return;
+        }
+
+        if (runCount == runLevels.length) {
+            runLevels = Arrays.copyOf(runLevels, 2 * runCount);
+            runLengths = Arrays.copyOf(runLengths, 2 * runCount);
+        }
+        runLevels[runCount] = level;
+        runLengths[runCount] = length;
+        runCount++;
+    }
+}
@@ -3,6 +3,8 @@ package bg.sofia.uni.fmi.mjt.logger;
 public class LoggerOptions {
     private static final long DEFAULT_MAX_FILE_SIZE_BYTES = 1024;
     private static final boolean DEFAULT_SHOULD_THROW_ERROR = false;
+    private static final int DEFAULT_ASYNC_BUFFER_SIZE = 8192;
+    private static final int DEFAULT_MAPPED_REGION_SIZE_BYTES = 1024 * 1024;
 
     private final Class<?> clazz;
     private final String directory;
@@ -10,6 +12,13 @@ public class LoggerOptions {
     private long maxFileSizeBytes = DEFAULT_MAX_FILE_SIZE_BYTES;
     private Level minLogLevel = Level.INFO;
     private boolean shouldThrowErrors = DEFAULT_SHOULD_THROW_ERROR;
+    private boolean async;
+    private int asyncBufferSize = DEFAULT_ASYNC_BUFFER_SIZE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private Level overflowMinLevel = Level.WARN;
+    private boolean memoryMapped;
+    private int mappedRegionSizeBytes = DEFAULT_MAPPED_REGION_SIZE_BYTES;
+    private boolean indexed;
 
     public LoggerOptions(Class<?> clazz, String directory) {
         this.clazz = clazz;
@@ -28,7 +37,16 @@ public class LoggerOptions {
         return maxFileSizeBytes;
     }
 
+    /**
+     * Sets the size at which the log file is rotated. A file takes at least one line, however long it is.
+     *
+     * @throws IllegalArgumentException if the size is not positive
+     */
     public void setMaxFileSizeBytes(long maxFileSizeBytes) {
+        if (maxFileSizeBytes <= 0) {
+            throw new IllegalArgumentException("Max file size must be a positive number");
+        }
+
         this.maxFileSizeBytes = maxFileSizeBytes;
     }
 
@@ -47,4 +65,108 @@ public class LoggerOptions {
     public void setShouldThrowErrors(boolean shouldThrowErrors) {
         this.shouldThrowErrors = shouldThrowErrors;
     }
-}
\ No newline at end of file
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Makes the logger hand the logs over to a background thread, which writes them in batches, instead of
+     * writing them in the calling thread. The logger registers a shutdown hook which writes the buffered
+     * logs when the JVM exits, unless it is closed before that. Logs are still lost if the JVM is halted
+     * or killed.
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getAsyncBufferSize() {
+        return asyncBufferSize;
+    }
+
+    /**
+     * Sets how many logs wait for the background thread at most. Rounded up to a power of two.
+     *
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public void setAsyncBufferSize(int asyncBufferSize) {
+        if (asyncBufferSize <= 0) {
+            throw new IllegalArgumentException("Async buffer size must be a positive number");
+        }
+
+        this.asyncBufferSize = asyncBufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Sets what an asynchronous logger does with a log when its buffer is full. Blocks by default.
+     *
+     * @throws IllegalArgumentException if the policy is null
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        CommonValidations.throwIfNull(overflowPolicy, "Overflow policy");
+
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public Level getOverflowMinLevel() {
+        return overflowMinLevel;
+    }
+
+    /**
+     * Sets the lowest level which is not dropped under {@link OverflowPolicy#DROP_BELOW_LEVEL}. WARN by default.
+     *
+     * @throws IllegalArgumentException if the level is null
+     */
+    public void setOverflowMinLevel(Level overflowMinLevel) {
+        CommonValidations.throwIfNull(overflowMinLevel, "Overflow min level");
+
+        this.overflowMinLevel = overflowMinLevel;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Makes the logger copy the lines into a memory mapped region of the log file instead of writing them
+     * through a channel, which saves a system call per line. Until the file is rotated or the logger is
+     * closed, the file is padded with zeros up to the end of the mapped region.
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    public int getMappedRegionSizeBytes() {
+        return mappedRegionSizeBytes;
+    }
+
+    /**
+     * Sets how many bytes of the log file are mapped at once, 1 MiB by default. A region never extends the
+     * file beyond the maximum file size, unless a single line needs more.
+     *
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public void setMappedRegionSizeBytes(int mappedRegionSizeBytes) {
+        if (mappedRegionSizeBytes <= 0) {
+            throw new IllegalArgumentException("Mapped region size must be a positive number");
+        }
+
+        this.mappedRegionSizeBytes = mappedRegionSizeBytes;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * Makes the logger write a sidecar index next to every log file, which lets {@link DefaultLogParser}
+     * read only the parts of the file which may hold the requested logs.
+     */
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+    }
+}
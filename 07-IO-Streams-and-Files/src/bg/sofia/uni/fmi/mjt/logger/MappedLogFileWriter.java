@@ -0,0 +1,153 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the lines by copying them into a memory mapped region after the end of the file, so appending
+ * a line costs no system call. When the region fills up, the next one is mapped right after it. Mapping
+ * extends the file, so until the writer is closed the file is padded with zeros up to the end of the
+ * current region. Closing truncates it to the length of the lines written.
+ * <p>
+ * A region is unmapped as soon as the writer moves past it, through {@code sun.misc.Unsafe::invokeCleaner}
+ * from the jdk.unsupported module, because some platforms, Windows among them, refuse to truncate a file
+ * which is still mapped. On a JVM without that module the regions are left to the garbage collector, and
+ * on such a platform closing the writer may fail to cut off the padding.
+ * <p>
+ * Regions are no longer than the given size and, unless a single write needs more, do not extend the file
+ * beyond the maximum file size. A file left padded by a writer which was not closed, for example because
+ * the JVM crashed, has its padding cut off when it is opened again.
+ */
+final class MappedLogFileWriter implements LogFileWriter {
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private final FileChannel channel;
+    private final int regionSize;
+    private final long maxFileSize;
+
+    private MappedByteBuffer region;
+    private long size;
+
+    /**
+     * @param regionSize  the maximum number of bytes to map at once
+     * @param maxFileSize the size at which the file is rotated
+     */
+    MappedLogFileWriter(Path file, int regionSize, long maxFileSize) throws IOException {
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.regionSize = regionSize;
+        this.maxFileSize = maxFileSize;
+
+        try {
+            this.size = lengthWithoutPadding();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer lines) throws IOException {
+        if (region == null || region.remaining() < lines.remaining()) {
+            map(lines.remaining());
+        }
+
+        size += lines.remaining();
+        region.put(lines);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            unmap();
+            channel.truncate(size);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Maps a new region starting at the end of the lines written so far.
+     */
+    private void map(int required) throws IOException {
+        long length = Math.max(required, Math.min(regionSize, maxFileSize - size));
+
+        unmap();
+        region = channel.map(FileChannel.MapMode.READ_WRITE, size, length);
+    }
+
+    /**
+     * Releases the current region right away instead of when it is garbage collected.
+     */
+    private void unmap() {
+        MappedByteBuffer unmapped = region;
+        region = null;
+
+        if (unmapped != null && INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invokeExact(unmapped);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unmapping a region failed", e);
+            }
+        }
+    }
+
+    /**
+     * @return whether the regions are unmapped explicitly, rather than by the garbage collector
+     */
+    static boolean unmapsExplicitly() {
+        return INVOKE_CLEANER != null;
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+
+            return MethodHandles.lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null))
+                .asType(MethodType.methodType(void.class, MappedByteBuffer.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Without jdk.unsupported the regions are unmapped once they are garbage collected
+            return null;
+        }
+    }
+
+    /**
+     * @return the length of the file without the zeros padding it after the last line
+     */
+    private long lengthWithoutPadding() throws IOException {
+        long length = channel.size();
+        long scanStart = Math.max(0, length - regionSize);
+
+        ByteBuffer tail = ByteBuffer.allocate((int) (length - scanStart));
+        while (tail.hasRemaining() && channel.read(tail, scanStart + tail.position()) >= 0) {
+            // Keeps reading until the tail is full
+        }
+        tail.flip();
+
+        int end = tail.limit();
+        while (end > 0 && tail.get(end - 1) == 0) {
+            end--;
+        }
+
+        return scanStart + end;
+    }
+}
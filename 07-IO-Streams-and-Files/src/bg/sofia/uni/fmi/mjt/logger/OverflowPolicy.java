@@ -0,0 +1,22 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+/**
+ * What an asynchronous logger does with a log when its buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Waits until the writer thread makes room for the log.
+     */
+    BLOCK,
+
+    /**
+     * Drops the log.
+     */
+    DROP,
+
+    /**
+     * Drops the log if its level is lower than {@link LoggerOptions#getOverflowMinLevel()}, and waits
+     * for room otherwise.
+     */
+    DROP_BELOW_LEVEL
+}
@@ -0,0 +1,283 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAppenderTest {
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2022, 12, 1, 10, 15);
+    private static final int BUFFER_SIZE = 4;
+
+    @Test
+    void invalidOptions() {
+        LoggerOptions options = new LoggerOptions(AsyncAppenderTest.class, "logs");
+
+        assertThrows(IllegalArgumentException.class, () -> options.setAsyncBufferSize(0));
+        assertThrows(IllegalArgumentException.class, () -> options.setOverflowPolicy(null));
+        assertThrows(IllegalArgumentException.class, () -> options.setOverflowMinLevel(null));
+    }
+
+    @Test
+    void asyncLoggerWritesAllLogsInOrder() throws IOException, InterruptedException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions options = new LoggerOptions(AsyncAppenderTest.class, path.toString());
+        options.setMaxFileSizeBytes(Long.MAX_VALUE);
+        options.setAsync(true);
+        options.setAsyncBufferSize(BUFFER_SIZE);
+
+        final int threadsCount = 4;
+        final int logsPerThread = 1000;
+        DefaultLogger logger = new DefaultLogger(options);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadsCount; t++) {
+            String prefix = t + "-";
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < logsPerThread; i++) {
+                    logger.log(Level.INFO, TIMESTAMP, prefix + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        logger.close();
+
+        List<Log> logs = new DefaultLogParser(logger.getCurrentFilePath()).getLogsTail(Integer.MAX_VALUE);
+        assertEquals(threadsCount * logsPerThread, logs.size());
+        assertEquals(0, logger.getDroppedCount());
+
+        int[] next = new int[threadsCount];
+        for (Log log : logs) {
+            String[] tokens = log.message().split("-");
+            int thread = Integer.parseInt(tokens[0]);
+            assertEquals(next[thread]++, Integer.parseInt(tokens[1]), "Logs of a thread are out of order");
+        }
+
+        Files.deleteIfExists(logger.getCurrentFilePath());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void flushWaitsForPublishedLogs() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions options = new LoggerOptions(AsyncAppenderTest.class, path.toString());
+        options.setAsync(true);
+        DefaultLogger logger = new DefaultLogger(options);
+
+        logger.log(Level.INFO, TIMESTAMP, "msg");
+        logger.flush();
+
+        String expected = new Log(Level.INFO, TIMESTAMP, AsyncAppenderTest.class.getPackageName(), "msg").toString();
+        assertEquals(expected, Files.readString(logger.getCurrentFilePath()));
+
+        logger.close();
+        logger.log(Level.WARN, TIMESTAMP, "after close"); // Written synchronously
+        assertEquals(2, Files.readAllLines(logger.getCurrentFilePath()).size());
+        logger.close();
+
+        Files.deleteIfExists(logger.getCurrentFilePath());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void logsBufferedAtExitAreWritten() throws Exception {
+        Path path = Files.createTempDirectory("mjt-logs");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = locationOf(ExitWithoutClose.class) + File.pathSeparator + locationOf(DefaultLogger.class);
+        Process process = new ProcessBuilder(java, "-cp", classPath, ExitWithoutClose.class.getName(), path.toString())
+            .inheritIO()
+            .start();
+        assertEquals(0, process.waitFor());
+
+        Path file = LogSegments.path(path, 0);
+        assertEquals(ExitWithoutClose.LOGS_COUNT, Files.readAllLines(file).size());
+
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(path);
+    }
+
+    private static String locationOf(Class<?> clazz) throws URISyntaxException {
+        return Path.of(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /**
+     * Logs through an asynchronous logger into the given directory and exits without closing it.
+     */
+    static final class ExitWithoutClose {
+        static final int LOGS_COUNT = 100_000;
+
+        public static void main(String[] args) {
+            LoggerOptions options = new LoggerOptions(ExitWithoutClose.class, args[0]);
+            options.setMaxFileSizeBytes(Long.MAX_VALUE);
+            options.setAsync(true);
+
+            DefaultLogger logger = new DefaultLogger(options);
+            for (int i = 0; i < LOGS_COUNT; i++) {
+                logger.log(Level.INFO, TIMESTAMP, Integer.toString(i));
+            }
+        }
+    }
+
+    @Test
+    void dropPolicyDropsLogsWhenFull() throws InterruptedException {
+        LoggerOptions options = new LoggerOptions(AsyncAppenderTest.class, "logs");
+        options.setAsyncBufferSize(BUFFER_SIZE);
+        options.setOverflowPolicy(OverflowPolicy.DROP);
+
+        BlockingSink sink = new BlockingSink();
+        AsyncAppender appender = new AsyncAppender(options, new byte[0], sink);
+
+        int accepted = fillBuffer(appender, sink, Level.ERROR);
+        appender.append(Level.ERROR, TIMESTAMP, "dropped");
+        appender.append(Level.ERROR, TIMESTAMP, "dropped");
+        assertEquals(2, appender.getDroppedCount());
+
+        sink.release();
+        appender.close();
+
+        assertEquals(accepted, sink.lines());
+        assertFalse(sink.content().contains("dropped"));
+    }
+
+    @Test
+    void dropBelowLevelPolicyBlocksOnlyForImportantLogs() throws InterruptedException {
+        LoggerOptions options = new LoggerOptions(AsyncAppenderTest.class, "logs");
+        options.setAsyncBufferSize(BUFFER_SIZE);
+        options.setOverflowPolicy(OverflowPolicy.DROP_BELOW_LEVEL);
+        options.setOverflowMinLevel(Level.WARN);
+
+        BlockingSink sink = new BlockingSink();
+        AsyncAppender appender = new AsyncAppender(options, new byte[0], sink);
+
+        int accepted = fillBuffer(appender, sink, Level.INFO);
+        appender.append(Level.INFO, TIMESTAMP, "dropped");
+        assertEquals(1, appender.getDroppedCount());
+
+        Thread important = new Thread(() -> appender.append(Level.ERROR, TIMESTAMP, "important"));
+        important.start();
+        important.join(100);
+        assertTrue(important.isAlive(), "An ERROR log should wait for room instead of being dropped");
+
+        sink.release();
+        important.join();
+        appender.close();
+
+        assertEquals(accepted + 1, sink.lines());
+        assertTrue(sink.content().contains("important"));
+        assertFalse(sink.content().contains("dropped"));
+        assertEquals(1, appender.getDroppedCount());
+    }
+
+    @Test
+    void errorOfTheSinkDropsTheBatchAndDoesNotBlockProducers() throws InterruptedException {
+        LoggerOptions options = new LoggerOptions(AsyncAppenderTest.class, "logs");
+        options.setAsyncBufferSize(BUFFER_SIZE);
+        options.setOverflowPolicy(OverflowPolicy.BLOCK);
+
+        BlockingSink sink = new BlockingSink(new AssertionError("Sink failure"));
+        AsyncAppender appender = new AsyncAppender(options, new byte[0], sink);
+
+        fillBuffer(appender, sink, Level.INFO);
+        Thread blocked = new Thread(() -> appender.append(Level.INFO, TIMESTAMP, "blocked"));
+        blocked.start();
+
+        sink.release();
+        blocked.join(5000);
+        assertFalse(blocked.isAlive(), "A producer should not wait forever after the sink fails");
+
+        appender.append(Level.INFO, TIMESTAMP, "after failure");
+        appender.close();
+
+        assertEquals(1, appender.getDroppedCount());
+        assertTrue(sink.content().contains("blocked"));
+        assertTrue(sink.content().contains("after failure"));
+    }
+
+    /**
+     * Blocks the writer thread on the sink with one log and fills the buffer with as many more.
+     *
+     * @return the number of logs appended
+     */
+    private int fillBuffer(AsyncAppender appender, BlockingSink sink, Level level) throws InterruptedException {
+        appender.append(level, TIMESTAMP, "msg");
+        sink.awaitWrite();
+
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            appender.append(level, TIMESTAMP, "msg");
+        }
+        assertEquals(0, appender.getDroppedCount());
+
+        return 1 + BUFFER_SIZE;
+    }
+
+    private static final class BlockingSink implements AsyncAppender.Sink {
+        private final CountDownLatch written = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final StringBuilder content = new StringBuilder();
+        private Error firstWriteError;
+
+        BlockingSink() {
+        }
+
+        /**
+         * @param firstWriteError thrown by the first write once released
+         */
+        BlockingSink(Error firstWriteError) {
+            this.firstWriteError = firstWriteError;
+        }
+
+        @Override
+        public void write(ByteBuffer lines, LogSummary summary) {
+            written.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (firstWriteError != null) {
+                Error error = firstWriteError;
+                firstWriteError = null;
+                throw error;
+            }
+
+            byte[] bytes = new byte[lines.remaining()];
+            lines.get(bytes);
+            synchronized (content) {
+                content.append(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        void awaitWrite() throws InterruptedException {
+            written.await();
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        String content() {
+            synchronized (content) {
+                return content.toString();
+            }
+        }
+
+        int lines() {
+            return content().split(System.lineSeparator()).length;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -201,4 +202,83 @@ class DefaultLogParserTest {
             --lastId;
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void getLogsTailWithLinesSpanningReadChunks() throws IOException {
+        Path file = Files.createTempFile("mjt-logs", ".txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            String message = i + "-" + "x".repeat(i * 20_000);
+            content.append(new Log(Level.INFO, START_DATE, "package", message));
+        }
+        Files.writeString(file, content);
+
+        LogParser logParser = new DefaultLogParser(file);
+        List<Log> tail = logParser.getLogsTail(3);
+
+        assertEquals(3, tail.size());
+        for (int i = 0; i < tail.size(); i++) {
+            assertEquals(7 + i + "-" + "x".repeat((7 + i) * 20_000), tail.get(i).message());
+        }
+        assertEquals(10, logParser.getLogsTail(20).size());
+
+        Files.delete(file);
+    }
+
+    @Test
+    void getLogsTailWithoutTrailingLineBreak() throws IOException {
+        Path file = Files.createTempFile("mjt-logs", ".txt");
+        String first = new Log(Level.INFO, START_DATE, "package", "first").toString();
+        String last = new Log(Level.ERROR, END_DATE, "package", "last").toString().strip();
+        Files.writeString(file, first + last);
+
+        LogParser logParser = new DefaultLogParser(file);
+
+        assertEquals(List.of("last"), logParser.getLogsTail(1).stream().map(Log::message).toList());
+        assertEquals(List.of("first", "last"), logParser.getLogsTail(2).stream().map(Log::message).toList());
+
+        Files.delete(file);
+    }
+
+    @Test
+    void streamLogsWithInvalidArguments() {
+        LogParser logParser = new DefaultLogParser(logFile);
+
+        assertThrows(IllegalArgumentException.class, () -> logParser.streamLogs(null));
+        assertThrows(IllegalArgumentException.class, () -> logParser.streamLogs(null, LocalDateTime.now()));
+        assertThrows(IllegalArgumentException.class, () -> logParser.streamLogs(LocalDateTime.now(), null));
+    }
+
+    @Test
+    void streamLogsWithInvalidFile() {
+        LogParser logParser = new DefaultLogParser(logFile.getParent().resolve("Invalid.tmp"));
+
+        try (Stream<Log> logs = logParser.streamLogs()) {
+            assertEquals(0, logs.count());
+        }
+    }
+
+    @Test
+    void streamLogsMatchesGetLogs() {
+        LogParser logParser = new DefaultLogParser(logFile);
+
+        try (Stream<Log> logs = logParser.streamLogs(Level.WARN)) {
+            assertEquals(logParser.getLogs(Level.WARN), logs.toList());
+        }
+        try (Stream<Log> logs = logParser.streamLogs(START_DATE.plusDays(2), END_DATE)) {
+            assertEquals(logParser.getLogs(START_DATE.plusDays(2), END_DATE), logs.toList());
+        }
+        try (Stream<Log> logs = logParser.streamLogs()) {
+            assertEquals(logParser.getLogsTail(Integer.MAX_VALUE), logs.toList());
+        }
+    }
+
+    @Test
+    void streamLogsStopsEarly() {
+        LogParser logParser = new DefaultLogParser(logFile);
+
+        try (Stream<Log> logs = logParser.streamLogs()) {
+            assertEquals(List.of("0", "1", "2"), logs.limit(3).map(Log::message).toList());
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -175,5 +176,129 @@ class DefaultLoggerTest {
         Files.deleteIfExists(path);
     }
 
+    @Test
+    void logAppendsToTheSameFileAcrossCallsAndAfterClose() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+
+        LoggerOptions loggerOptions = new LoggerOptions(DefaultLoggerTest.class, path.toString());
+        loggerOptions.setMaxFileSizeBytes(5000);
+        DefaultLogger logger = new DefaultLogger(loggerOptions);
+        LocalDateTime timestamp = LocalDateTime.of(2022, 12, 1, 10, 15);
+
+        logger.log(Level.INFO, timestamp, "first");
+        logger.log(Level.WARN, timestamp, "second");
+        logger.close();
+        logger.log(Level.ERROR, timestamp, "third");
+        logger.close();
+
+        String packageName = DefaultLogger.class.getPackageName();
+        List<String> expected = List.of(
+            new Log(Level.INFO, timestamp, packageName, "first").toString().strip(),
+            new Log(Level.WARN, timestamp, packageName, "second").toString().strip(),
+            new Log(Level.ERROR, timestamp, packageName, "third").toString().strip());
+        assertEquals(expected, Files.readAllLines(logger.getCurrentFilePath()));
+
+        Files.deleteIfExists(logger.getCurrentFilePath());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void logContinuesInTheLastLogFileAfterRestart() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        Files.writeString(path.resolve("logs-0.txt"), "old\n");
+        Files.writeString(path.resolve("logs-3.txt"), "recent\n");
+        Files.writeString(path.resolve("logs-x.txt"), "not a log file\n");
+
+        LoggerOptions loggerOptions = new LoggerOptions(DefaultLoggerTest.class, path.toString());
+        loggerOptions.setMaxFileSizeBytes(100);
+        DefaultLogger logger = new DefaultLogger(loggerOptions);
+
+        assertEquals(path.resolve("logs-3.txt"), logger.getCurrentFilePath());
+
+        logger.log(Level.INFO, LocalDateTime.now(), "msg");
+        logger.close();
+
+        assertEquals(2, Files.readAllLines(path.resolve("logs-3.txt")).size());
+        assertEquals("old\n", Files.readString(path.resolve("logs-0.txt")));
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void logMovesOnFromAFullLogFileAfterRestart() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        Files.writeString(path.resolve("logs-2.txt"), "x".repeat(100));
+
+        LoggerOptions loggerOptions = new LoggerOptions(DefaultLoggerTest.class, path.toString());
+        loggerOptions.setMaxFileSizeBytes(100);
+        DefaultLogger logger = new DefaultLogger(loggerOptions);
+
+        logger.log(Level.INFO, LocalDateTime.now(), "msg");
+        logger.close();
 
-}
\ No newline at end of file
+        assertEquals(path.resolve("logs-3.txt"), logger.getCurrentFilePath());
+        assertEquals(1, Files.readAllLines(logger.getCurrentFilePath()).size());
+        assertEquals(100, Files.size(path.resolve("logs-2.txt")));
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void loggersInDifferentDirectoriesHaveIndependentFileIds() throws IOException {
+        Path first = Files.createTempDirectory("mjt-logs");
+        Path second = Files.createTempDirectory("mjt-logs");
+
+        LoggerOptions firstOptions = new LoggerOptions(DefaultLoggerTest.class, first.toString());
+        firstOptions.setMaxFileSizeBytes(1);
+        DefaultLogger firstLogger = new DefaultLogger(firstOptions);
+        for (int i = 0; i < 3; i++) {
+            firstLogger.log(Level.INFO, LocalDateTime.now(), "msg");
+        }
+        firstLogger.close();
+
+        DefaultLogger secondLogger = new DefaultLogger(new LoggerOptions(DefaultLoggerTest.class, second.toString()));
+        secondLogger.log(Level.INFO, LocalDateTime.now(), "msg");
+        secondLogger.close();
+
+        assertEquals(first.resolve("logs-2.txt"), firstLogger.getCurrentFilePath());
+        assertEquals(second.resolve("logs-0.txt"), secondLogger.getCurrentFilePath());
+
+        deleteDirectory(first);
+        deleteDirectory(second);
+    }
+
+    @Test
+    void setMaxFileSizeBytesWithNonPositiveSize() {
+        LoggerOptions loggerOptions = new LoggerOptions(DefaultLoggerTest.class, tmpDir);
+
+        assertThrows(IllegalArgumentException.class, () -> loggerOptions.setMaxFileSizeBytes(0));
+        assertThrows(IllegalArgumentException.class, () -> loggerOptions.setMaxFileSizeBytes(-1));
+    }
+
+    @Test
+    void logWritesALineLongerThanTheMaxSizeIntoAFreshFile() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions loggerOptions = new LoggerOptions(DefaultLoggerTest.class, path.toString());
+        loggerOptions.setMaxFileSizeBytes(1);
+        DefaultLogger logger = new DefaultLogger(loggerOptions);
+
+        logger.log(Level.INFO, LocalDateTime.now(), "longer than a byte");
+        logger.close();
+
+        try (var files = Files.list(path)) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(1, Files.readAllLines(logger.getCurrentFilePath()).size());
+
+        deleteDirectory(path);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,185 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryLogParserTest {
+    private static final LocalDateTime START = LocalDateTime.of(2022, 12, 1, 10, 15);
+    private static final int LOGS_COUNT = 300;
+
+    private static Path directory;
+
+    /**
+     * Logs with timestamps going back and forth between the rotated files: log i is i minutes after the
+     * start if i is even, and i minutes before it otherwise.
+     */
+    @BeforeAll
+    static void initTempEnvironment() throws IOException {
+        directory = Files.createTempDirectory("mjt-logs");
+
+        LoggerOptions options = new LoggerOptions(DirectoryLogParserTest.class, directory.toString());
+        options.setMaxFileSizeBytes(2000);
+        options.setMinLogLevel(Level.DEBUG);
+        options.setIndexed(true);
+
+        DefaultLogger logger = new DefaultLogger(options);
+        for (int i = 0; i < LOGS_COUNT; i++) {
+            logger.log(i % 10 == 0 ? Level.ERROR : Level.INFO, timestampOf(i), Integer.toString(i));
+        }
+        logger.close();
+    }
+
+    @AfterAll
+    static void cleanUpTempEnvironment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void logsAreRotated() {
+        assertTrue(new DefaultLogParser(LogSegments.path(directory, 0)).getLogsTail(LOGS_COUNT).size() < LOGS_COUNT);
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DirectoryLogParser(null));
+        assertThrows(IllegalArgumentException.class, () -> new DirectoryLogParser(directory, null));
+
+        LogParser logParser = new DirectoryLogParser(directory);
+        assertThrows(IllegalArgumentException.class, () -> logParser.getLogs(null));
+        assertThrows(IllegalArgumentException.class, () -> logParser.getLogs(null, START));
+        assertThrows(IllegalArgumentException.class, () -> logParser.getLogs(START, null));
+        assertThrows(IllegalArgumentException.class, () -> logParser.getLogsTail(-1));
+    }
+
+    @Test
+    void missingDirectoryHasNoLogs() {
+        LogParser logParser = new DirectoryLogParser(directory.resolve("missing"));
+
+        assertTrue(logParser.getLogs(Level.INFO).isEmpty());
+        assertTrue(logParser.getLogs(START.minusYears(1), START.plusYears(1)).isEmpty());
+        assertTrue(logParser.getLogsTail(5).isEmpty());
+    }
+
+    @Test
+    void getLogsByLevelSpansAllFilesInTimestampOrder() {
+        List<Log> errors = new DirectoryLogParser(directory).getLogs(Level.ERROR);
+
+        List<String> expected = IntStream.range(0, LOGS_COUNT)
+            .filter(i -> i % 10 == 0)
+            .boxed()
+            .sorted(Comparator.comparing(DirectoryLogParserTest::timestampOf))
+            .map(Object::toString)
+            .toList();
+        assertEquals(expected, errors.stream().map(Log::message).toList());
+    }
+
+    @Test
+    void getLogsByDateSpansAllFilesInTimestampOrder() {
+        LocalDateTime from = START.minusMinutes(50);
+        LocalDateTime to = START.plusMinutes(250);
+
+        List<Log> logs = new DirectoryLogParser(directory).getLogs(from, to);
+
+        List<String> expected = IntStream.range(0, LOGS_COUNT)
+            .filter(i -> !timestampOf(i).isBefore(from) && !timestampOf(i).isAfter(to))
+            .boxed()
+            .sorted(Comparator.comparing(DirectoryLogParserTest::timestampOf))
+            .map(Object::toString)
+            .toList();
+        assertEquals(expected, logs.stream().map(Log::message).toList());
+    }
+
+    @Test
+    void filesAreReadOnTheGivenExecutor() throws IOException {
+        AtomicInteger reads = new AtomicInteger();
+        Executor executor = task -> {
+            reads.incrementAndGet();
+            task.run();
+        };
+
+        List<Log> errors = new DirectoryLogParser(directory, executor).getLogs(Level.ERROR);
+
+        assertEquals(new DirectoryLogParser(directory).getLogs(Level.ERROR), errors);
+        assertEquals(LogSegments.list(directory).size(), reads.get());
+    }
+
+    @Test
+    void equalTimestampsKeepTheWrittenOrderAcrossFiles() throws IOException {
+        Path sameTimeDirectory = Files.createTempDirectory("mjt-logs");
+        LoggerOptions options = new LoggerOptions(DirectoryLogParserTest.class, sameTimeDirectory.toString());
+        options.setMaxFileSizeBytes(500);
+
+        DefaultLogger logger = new DefaultLogger(options);
+        for (int i = 0; i < 50; i++) {
+            logger.log(Level.INFO, i % 2 == 0 ? START : START.minusMinutes(1), Integer.toString(i));
+        }
+        logger.close();
+
+        List<String> expected = Stream.concat(
+            IntStream.range(0, 50).filter(i -> i % 2 != 0).boxed(),
+            IntStream.range(0, 50).filter(i -> i % 2 == 0).boxed()).map(Object::toString).toList();
+        assertEquals(expected,
+            new DirectoryLogParser(sameTimeDirectory).getLogs(Level.INFO).stream().map(Log::message).toList());
+
+        try (Stream<Path> files = Files.list(sameTimeDirectory)) {
+            assertTrue(files.count() > 1, "The logs should be rotated");
+        }
+        try (Stream<Path> files = Files.list(sameTimeDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(sameTimeDirectory);
+    }
+
+    @Test
+    void getLogsTailSpansFilesInWrittenOrder() {
+        LogParser logParser = new DirectoryLogParser(directory);
+
+        List<String> tail = logParser.getLogsTail(100).stream().map(Log::message).toList();
+
+        List<String> expected = IntStream.range(LOGS_COUNT - 100, LOGS_COUNT).mapToObj(Integer::toString).toList();
+        assertEquals(expected, tail);
+        assertEquals(LOGS_COUNT, logParser.getLogsTail(Integer.MAX_VALUE).size());
+        assertTrue(logParser.getLogsTail(0).isEmpty());
+    }
+
+    @Test
+    void streamLogsSpansFilesInWrittenOrder() {
+        LogParser logParser = new DirectoryLogParser(directory);
+
+        try (Stream<Log> logs = logParser.streamLogs()) {
+            List<String> expected = IntStream.range(0, LOGS_COUNT).mapToObj(Integer::toString).toList();
+            assertEquals(expected, logs.map(Log::message).toList());
+        }
+        try (Stream<Log> errors = logParser.streamLogs(Level.ERROR)) {
+            assertEquals(List.of("0", "10", "20"), errors.limit(3).map(Log::message).toList());
+        }
+        try (Stream<Log> logs = logParser.streamLogs(START, START.plusMinutes(4))) {
+            assertEquals(List.of("0", "2", "4"), logs.map(Log::message).toList());
+        }
+    }
+
+    private static LocalDateTime timestampOf(int i) {
+        return i % 2 == 0 ? START.plusMinutes(i) : START.minusMinutes(i);
+    }
+}
@@ -0,0 +1,97 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogDecoderTest {
+    private static final String PACKAGE_NAME = LogDecoderTest.class.getPackageName();
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2022, 12, 1, 10, 15);
+
+    private final LogEncoder encoder = new LogEncoder();
+    private final LogDecoder decoder = new LogDecoder();
+
+    @Test
+    void decodeReversesEncodeForAllTimestampPrecisions() {
+        List<LocalDateTime> timestamps = List.of(
+            TIMESTAMP,
+            TIMESTAMP.withSecond(7),
+            TIMESTAMP.withNano(120_000_000),
+            TIMESTAMP.withNano(123_450_000),
+            TIMESTAMP.withNano(123_456_789),
+            TIMESTAMP.withNano(1),
+            LocalDateTime.of(7, 1, 1, 0, 0, 0, 5_000),
+            LocalDateTime.of(-12, 1, 1, 0, 0),
+            LocalDateTime.of(12345, 1, 1, 0, 0),
+            LocalDateTime.now());
+
+        for (LocalDateTime timestamp : timestamps) {
+            assertDecodedAsEncoded(new Log(Level.INFO, timestamp, PACKAGE_NAME, "msg"));
+        }
+    }
+
+    @Test
+    void decodeReversesEncodeForAllLevelsPackagesAndCharacters() {
+        List<String> messages = List.of(
+            "plain ascii",
+            "\u043a\u0438\u0440\u0438\u043b\u0438\u0446\u0430 \u00fc",
+            "emoji \uD83D\uDE00 pair",
+            "with | separators | inside",
+            "x".repeat(10_000));
+        List<String> packageNames = List.of(PACKAGE_NAME, "", "\u043f\u0430\u043a\u0435\u0442", PACKAGE_NAME);
+
+        for (Level level : Level.values()) {
+            for (String packageName : packageNames) {
+                for (String message : messages) {
+                    assertDecodedAsEncoded(new Log(level, TIMESTAMP, packageName, message));
+                }
+            }
+        }
+    }
+
+    @Test
+    void decodeOfHeapBufferRange() {
+        String lines = "garbage[WARN]|" + TIMESTAMP + "|" + PACKAGE_NAME + "|msg\ngarbage";
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+
+        Log log = decoder.decode(buffer, "garbage".length(), lines.indexOf('\n'));
+
+        assertEquals(new Log(Level.WARN, TIMESTAMP, PACKAGE_NAME, "msg"), log);
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void decodeOfInvalidLines() {
+        assertThrows(IllegalArgumentException.class, () -> decode("[INFO]|" + TIMESTAMP + "|missing message"));
+        assertThrows(IllegalArgumentException.class, () -> decode("[INF0]|" + TIMESTAMP + "|package|msg"));
+        assertThrows(IllegalArgumentException.class, () -> decode("INFO|" + TIMESTAMP + "|package|msg"));
+        assertThrows(IllegalArgumentException.class, () -> decode("[]|" + TIMESTAMP + "|package|msg"));
+        assertThrows(DateTimeException.class, () -> decode("[INFO]|2022-13-01T10:15|package|msg"));
+        assertThrows(DateTimeException.class, () -> decode("[INFO]|2022-12-01T10:15:3|package|msg"));
+        assertThrows(DateTimeException.class, () -> decode("[INFO]|2022-12-01T10:15:30.1234567891|package|msg"));
+        assertThrows(DateTimeException.class, () -> decode("[INFO]|2022-12-01 10:15|package|msg"));
+        assertThrows(DateTimeException.class, () -> decode("[INFO]|yesterday|package|msg"));
+    }
+
+    private Log decode(String line) {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        return decoder.decode(buffer, 0, buffer.limit());
+    }
+
+    /**
+     * Decodes the direct buffer of the encoder, without the line separator.
+     */
+    private void assertDecodedAsEncoded(Log log) {
+        byte[] packageName = log.packageName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer encoded = encoder.encode(log.level(), log.timestamp(), packageName, log.message());
+        int end = encoded.limit() - System.lineSeparator().length();
+
+        assertEquals(log, decoder.decode(encoded, encoded.position(), end));
+    }
+}
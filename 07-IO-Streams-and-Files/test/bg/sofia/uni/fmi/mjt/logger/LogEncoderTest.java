@@ -0,0 +1,63 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogEncoderTest {
+    private static final String PACKAGE_NAME = LogEncoderTest.class.getPackageName();
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2022, 12, 1, 10, 15);
+
+    private final LogEncoder encoder = new LogEncoder();
+
+    @Test
+    void encodeMatchesLogToStringForAllTimestampPrecisions() {
+        List<LocalDateTime> timestamps = List.of(
+            TIMESTAMP,
+            TIMESTAMP.withSecond(7),
+            TIMESTAMP.withNano(120_000_000),
+            TIMESTAMP.withNano(123_450_000),
+            TIMESTAMP.withNano(123_456_789),
+            TIMESTAMP.withNano(1),
+            LocalDateTime.of(7, 1, 1, 0, 0, 0, 5_000),
+            LocalDateTime.of(-12, 1, 1, 0, 0),
+            LocalDateTime.of(12345, 1, 1, 0, 0),
+            LocalDateTime.now());
+
+        for (LocalDateTime timestamp : timestamps) {
+            assertEncodedAsToString(new Log(Level.INFO, timestamp, PACKAGE_NAME, "msg"));
+        }
+    }
+
+    @Test
+    void encodeMatchesLogToStringForAllLevelsAndCharacters() {
+        List<String> messages = List.of(
+            "plain ascii",
+            "\u043a\u0438\u0440\u0438\u043b\u0438\u0446\u0430 \u00fc",
+            "\u20ac and \u4e2d\u6587",
+            "emoji \uD83D\uDE00 pair",
+            "lonely \uD83D high and \uDE00 low surrogates",
+            "x".repeat(10_000));
+
+        for (Level level : Level.values()) {
+            for (String message : messages) {
+                assertEncodedAsToString(new Log(level, TIMESTAMP, PACKAGE_NAME, message));
+            }
+        }
+    }
+
+    private void assertEncodedAsToString(Log log) {
+        byte[] packageName = log.packageName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer encoded = encoder.encode(log.level(), log.timestamp(), packageName, log.message());
+
+        byte[] actual = new byte[encoded.remaining()];
+        encoded.get(actual);
+
+        assertArrayEquals(log.toString().getBytes(StandardCharsets.UTF_8), actual, log.toString());
+    }
+}
@@ -0,0 +1,256 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2022, 12, 1, 10, 15, 30, 500);
+    private static final int LOGS_COUNT = 2000;
+
+    @Test
+    void indexedQueriesReadOnlyMatchingLines() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        DefaultLogger logger = new DefaultLogger(indexedOptions(path));
+        logAll(logger, 0);
+        logger.close();
+
+        Path file = logger.getCurrentFilePath();
+        LogIndex index = LogIndex.load(file);
+        assertNotNull(index);
+        assertEquals(Files.size(file), index.indexedEnd());
+
+        for (Level level : Level.values()) {
+            assertEquals(linesLength(file, level), length(index.ranges(level)),
+                "Only the lines with level " + level + " should be read");
+        }
+
+        long hourBytes = length(index.ranges(START.plusMinutes(100), START.plusMinutes(160)));
+        assertTrue(hourBytes < Files.size(file) / 2, "Blocks outside the time range should be skipped");
+
+        assertSameAsFullScan(file);
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void asyncLoggerIsIndexed() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions options = indexedOptions(path);
+        options.setAsync(true);
+
+        DefaultLogger logger = new DefaultLogger(options);
+        logAll(logger, 0);
+        logger.close();
+
+        Path file = logger.getCurrentFilePath();
+        assertEquals(Files.size(file), LogIndex.load(file).indexedEnd());
+        assertEquals(linesLength(file, Level.ERROR), length(LogIndex.load(file).ranges(Level.ERROR)));
+        assertEquals(LOGS_COUNT / 500, new DefaultLogParser(file).getLogs(Level.ERROR).size());
+        assertSameAsFullScan(file);
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void linesLoggedWithoutTheIndexAreStillFound() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions plainOptions = indexedOptions(path);
+        plainOptions.setIndexed(false);
+
+        DefaultLogger plainLogger = new DefaultLogger(plainOptions);
+        logAll(plainLogger, 0);
+        plainLogger.close();
+
+        DefaultLogger indexedLogger = new DefaultLogger(indexedOptions(path));
+        logAll(indexedLogger, LOGS_COUNT);
+        indexedLogger.close();
+
+        plainLogger = new DefaultLogger(plainOptions);
+        logAll(plainLogger, 2 * LOGS_COUNT);
+        plainLogger.close();
+
+        Path file = plainLogger.getCurrentFilePath();
+        assertTrue(LogIndex.load(file).indexedEnd() < Files.size(file));
+        assertEquals(3 * LOGS_COUNT / 500, new DefaultLogParser(file).getLogs(Level.ERROR).size());
+        assertSameAsFullScan(file);
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void entryCutShortIsIgnored() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        DefaultLogger logger = new DefaultLogger(indexedOptions(path));
+        logAll(logger, 0);
+        logger.close();
+
+        Path file = logger.getCurrentFilePath();
+        Files.write(LogIndex.sidecarOf(file), new byte[LogIndex.ENTRY_SIZE / 2], StandardOpenOption.APPEND);
+        assertEquals(Files.size(file), LogIndex.load(file).indexedEnd());
+
+        logger.log(Level.ERROR, START, "after restart");
+        logger.close();
+
+        assertEquals(0, (Files.size(LogIndex.sidecarOf(file)) - LogIndex.HEADER_SIZE) % LogIndex.ENTRY_SIZE);
+        assertEquals(Files.size(file), LogIndex.load(file).indexedEnd());
+        assertSameAsFullScan(file);
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void runsPastTheTimeEntriesAreIgnored() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        DefaultLogger logger = new DefaultLogger(indexedOptions(path));
+        logAll(logger, 0);
+        logger.close();
+
+        // As if the writer stopped between the runs of a block and its time entry
+        Path file = logger.getCurrentFilePath();
+        long errorRuns = Files.size(LogIndex.sidecarOf(file, Level.ERROR));
+        Files.write(LogIndex.sidecarOf(file, Level.ERROR),
+            ByteBuffer.allocate(LogIndex.RUN_SIZE).putLong(Files.size(file)).putLong(100).array(),
+            StandardOpenOption.APPEND);
+        assertEquals(linesLength(file, Level.ERROR), length(LogIndex.load(file).ranges(Level.ERROR)));
+
+        logger.log(Level.WARN, START, "after restart");
+        logger.close();
+
+        assertEquals(errorRuns, Files.size(LogIndex.sidecarOf(file, Level.ERROR)));
+        assertSameAsFullScan(file);
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void missingRunsAreReadAsAnyLevel() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        DefaultLogger logger = new DefaultLogger(indexedOptions(path));
+        logAll(logger, 0);
+        logger.close();
+
+        Path file = logger.getCurrentFilePath();
+        Files.delete(LogIndex.sidecarOf(file, Level.WARN));
+        assertEquals(Files.size(file), length(LogIndex.load(file).ranges(Level.WARN)));
+        assertSameAsFullScan(file);
+
+        // The index is rebuilt, covering the earlier lines as lines of any level
+        long earlierLines = Files.size(file);
+        logger.log(Level.ERROR, START, "after restart");
+        logger.close();
+
+        assertEquals(Files.size(file), LogIndex.load(file).indexedEnd());
+        assertEquals(earlierLines, length(LogIndex.load(file).ranges(Level.WARN)));
+        assertSameAsFullScan(file);
+
+        deleteDirectory(path);
+    }
+
+    @Test
+    void rotatedFilesHaveTheirOwnIndex() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions options = indexedOptions(path);
+        options.setMaxFileSizeBytes(10 * 1024);
+
+        DefaultLogger logger = new DefaultLogger(options);
+        logAll(logger, 0);
+        logger.close();
+
+        List<Path> logFiles;
+        try (Stream<Path> files = Files.list(path)) {
+            logFiles = files.filter(file -> file.toString().endsWith(".txt")).toList();
+        }
+        assertTrue(logFiles.size() > 1, "The logs should be rotated");
+        for (Path file : logFiles) {
+            assertEquals(Files.size(file), LogIndex.load(file).indexedEnd());
+        }
+
+        // The index files do not count as log files
+        DefaultLogger restarted = new DefaultLogger(options);
+        assertEquals(logger.getCurrentFilePath(), restarted.getCurrentFilePath());
+
+        deleteDirectory(path);
+    }
+
+    private static LoggerOptions indexedOptions(Path path) {
+        LoggerOptions options = new LoggerOptions(LogIndexTest.class, path.toString());
+        options.setMaxFileSizeBytes(Long.MAX_VALUE);
+        options.setMinLogLevel(Level.DEBUG);
+        options.setIndexed(true);
+
+        return options;
+    }
+
+    /**
+     * Logs a minute apart, with an error every 500 logs and the other levels in turn.
+     */
+    private static void logAll(DefaultLogger logger, int firstId) {
+        Level[] levels = {Level.DEBUG, Level.INFO, Level.WARN};
+        for (int i = firstId; i < firstId + LOGS_COUNT; i++) {
+            Level level = i % 500 == 0 ? Level.ERROR : levels[i % levels.length];
+            logger.log(level, START.plusMinutes(i), Integer.toString(i));
+        }
+    }
+
+    /**
+     * Checks the indexed queries against the same queries over the file without its index.
+     */
+    private static void assertSameAsFullScan(Path file) throws IOException {
+        List<LocalDateTime[]> timeRanges = List.of(
+            new LocalDateTime[] {START, START},
+            new LocalDateTime[] {START.plusMinutes(100), START.plusMinutes(160)},
+            new LocalDateTime[] {START.plusMinutes(1999).withNano(0), START.plusMinutes(2000).withNano(0)},
+            new LocalDateTime[] {START.minusYears(1), START.plusYears(1)});
+
+        LogParser indexed = new DefaultLogParser(file);
+        List<List<Log>> indexedLogs = Stream.concat(
+            Stream.of(Level.values()).map(indexed::getLogs),
+            timeRanges.stream().map(range -> indexed.getLogs(range[0], range[1]))).toList();
+
+        Path copy = file.resolveSibling("copy-" + file.getFileName());
+        Files.copy(file, copy);
+        LogParser fullScan = new DefaultLogParser(copy);
+        List<List<Log>> scannedLogs = Stream.concat(
+            Stream.of(Level.values()).map(fullScan::getLogs),
+            timeRanges.stream().map(range -> fullScan.getLogs(range[0], range[1]))).toList();
+        Files.delete(copy);
+
+        assertEquals(scannedLogs, indexedLogs);
+        assertTrue(indexedLogs.stream().noneMatch(List::isEmpty));
+    }
+
+    /**
+     * @return the total length in bytes of the lines in the file with the given level
+     */
+    private static long linesLength(Path file, Level level) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.filter(line -> line.startsWith("[" + level + "]"))
+                .mapToLong(line -> line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length())
+                .sum();
+        }
+    }
+
+    private static long length(List<LogIndex.Range> ranges) {
+        return ranges.stream().mapToLong(LogIndex.Range::length).sum();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,62 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogReaderTest {
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2022, 12, 1, 10, 15);
+
+    @Test
+    void readsWindowsLineBreaksAndALastLineWithoutLineBreak() throws IOException {
+        Path file = Files.createTempFile("mjt-logs", ".txt");
+        String first = "[INFO]|" + TIMESTAMP + "|package|first\r\n";
+        String second = "[WARN]|" + TIMESTAMP + "|package|second";
+        Files.writeString(file, first + second);
+
+        List<Log> logs = new ArrayList<>();
+        List<LogIndex.Range> wholeFile = List.of(new LogIndex.Range(0, Files.size(file)));
+        try (LogReader reader = new LogReader(FileChannel.open(file), wholeFile)) {
+            reader.forEachRemaining(logs::add);
+            assertThrows(NoSuchElementException.class, reader::next);
+        }
+
+        assertEquals(List.of(new Log(Level.INFO, TIMESTAMP, "package", "first"),
+            new Log(Level.WARN, TIMESTAMP, "package", "second")), logs);
+
+        Files.delete(file);
+    }
+
+    @Test
+    void readsOnlyTheRangesInTheirOrderAndClosesTheFile() throws IOException {
+        Path file = Files.createTempFile("mjt-logs", ".txt");
+        String first = new Log(Level.INFO, TIMESTAMP, "package", "first").toString();
+        String second = new Log(Level.WARN, TIMESTAMP, "package", "second").toString();
+        String third = new Log(Level.ERROR, TIMESTAMP, "package", "third").toString();
+        Files.writeString(file, first + second + third);
+
+        FileChannel channel = FileChannel.open(file);
+        List<LogIndex.Range> ranges = List.of(
+            new LogIndex.Range(first.length() + second.length(), third.length()),
+            new LogIndex.Range(0, first.length()));
+        LogReader reader = new LogReader(channel, ranges);
+
+        assertEquals("third", reader.next().message());
+        assertEquals("first", reader.next().message());
+        assertFalse(reader.hasNext());
+
+        reader.close();
+        assertFalse(channel.isOpen());
+
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,153 @@
+package bg.sofia.uni.fmi.mjt.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLogFileWriterTest {
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2022, 12, 1, 10, 15);
+    private static final int REGION_SIZE = 64;
+
+    @Test
+    void invalidOptions() {
+        LoggerOptions options = new LoggerOptions(MappedLogFileWriterTest.class, "logs");
+
+        assertThrows(IllegalArgumentException.class, () -> options.setMappedRegionSizeBytes(0));
+    }
+
+    @Test
+    void writesSpanningSeveralRegionsAreTruncatedOnClose() throws IOException {
+        Path file = Files.createTempFile("mjt-logs", ".txt");
+
+        StringBuilder expected = new StringBuilder();
+        try (LogFileWriter writer = new MappedLogFileWriter(file, REGION_SIZE, Long.MAX_VALUE)) {
+            for (int i = 0; i < 20; i++) {
+                String line = "line " + i + System.lineSeparator();
+                expected.append(line);
+                writer.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            }
+            writer.write(ByteBuffer.wrap("x".repeat(3 * REGION_SIZE).getBytes(StandardCharsets.UTF_8)));
+            expected.append("x".repeat(3 * REGION_SIZE));
+
+            assertEquals(expected.length(), writer.size());
+            assertTrue(Files.size(file) >= expected.length());
+        }
+
+        assertEquals(expected.toString(), Files.readString(file));
+
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void regionsAreUnmappedWithoutWaitingForTheGarbageCollector() throws IOException {
+        assertTrue(MappedLogFileWriter.unmapsExplicitly(),
+            "Regions should be unmapped explicitly, so the file can be truncated on every platform");
+
+        Path file = Files.createTempFile("mjt-logs", ".txt");
+        try (LogFileWriter writer = new MappedLogFileWriter(file, REGION_SIZE, Long.MAX_VALUE)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(ByteBuffer.wrap("x".repeat(REGION_SIZE).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+
+        assertEquals(10L * REGION_SIZE, Files.size(file));
+        Files.delete(file);
+    }
+
+    @Test
+    void paddingLeftByAnUnclosedWriterIsCutOff() throws IOException {
+        Path file = Files.createTempFile("mjt-logs", ".txt");
+        Files.write(file, "first\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(file, new byte[REGION_SIZE / 2], StandardOpenOption.APPEND);
+
+        try (LogFileWriter writer = new MappedLogFileWriter(file, REGION_SIZE, Long.MAX_VALUE)) {
+            assertEquals("first\n".length(), writer.size());
+            writer.write(ByteBuffer.wrap("second\n".getBytes(StandardCharsets.UTF_8)));
+        }
+
+        assertEquals("first\nsecond\n", Files.readString(file));
+
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void memoryMappedLoggerKeepsTheRotationSemantics() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions options = new LoggerOptions(MappedLogFileWriterTest.class, path.toString());
+        options.setMemoryMapped(true);
+        options.setMappedRegionSizeBytes(REGION_SIZE);
+        options.setMaxFileSizeBytes(300);
+
+        final int logsCount = 20;
+        DefaultLogger logger = new DefaultLogger(options);
+        for (int i = 0; i < logsCount; i++) {
+            logger.log(Level.INFO, TIMESTAMP, Integer.toString(i));
+        }
+        logger.close();
+
+        long lineLength = new Log(Level.INFO, TIMESTAMP, MappedLogFileWriterTest.class.getPackageName(), "10")
+            .toString().getBytes(StandardCharsets.UTF_8).length;
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(path)) {
+            files = list.sorted().toList();
+        }
+        assertTrue(files.size() > 1, "The logs should be rotated");
+
+        List<String> messages = new ArrayList<>();
+        for (Path file : files) {
+            assertTrue(Files.size(file) < options.getMaxFileSizeBytes() + lineLength);
+            new DefaultLogParser(file).getLogsTail(logsCount).forEach(log -> messages.add(log.message()));
+            Files.delete(file);
+        }
+        messages.sort((first, second) -> Integer.parseInt(first) - Integer.parseInt(second));
+
+        assertEquals(logsCount, messages.size());
+        for (int i = 0; i < logsCount; i++) {
+            assertEquals(Integer.toString(i), messages.get(i));
+        }
+
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void fileIsParsedWhileItsWriterIsOpen() throws IOException {
+        Path path = Files.createTempDirectory("mjt-logs");
+        LoggerOptions options = new LoggerOptions(MappedLogFileWriterTest.class, path.toString());
+        options.setMemoryMapped(true);
+        options.setMappedRegionSizeBytes(REGION_SIZE * 16);
+        options.setMaxFileSizeBytes(Long.MAX_VALUE);
+
+        DefaultLogger logger = new DefaultLogger(options);
+        logger.log(Level.INFO, TIMESTAMP, "first");
+        logger.log(Level.WARN, TIMESTAMP.plusMinutes(1), "second");
+
+        Path file = logger.getCurrentFilePath();
+        assertTrue(Files.size(file) > 2 * REGION_SIZE, "The file should be padded while the writer is open");
+
+        LogParser parser = new DefaultLogParser(file);
+        assertEquals(List.of("second"), parser.getLogsTail(1).stream().map(Log::message).toList());
+        assertEquals(List.of("first", "second"), parser.getLogsTail(5).stream().map(Log::message).toList());
+        assertEquals(List.of("first"), parser.getLogs(Level.INFO).stream().map(Log::message).toList());
+        assertEquals(2, parser.getLogs(TIMESTAMP, TIMESTAMP.plusMinutes(1)).size());
+        try (Stream<Log> logs = parser.streamLogs()) {
+            assertEquals(2, logs.count());
+        }
+        assertEquals(2, new DirectoryLogParser(path).getLogsTail(5).size());
+
+        logger.close();
+        Files.delete(file);
+        Files.delete(path);
+    }
+}